@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# 啟動時間基準測試：從啟動 JVM 開始計時，直到第一個成功（HTTP 200）的 GET /api/tasks。
+#
+# 用法（在 backend 目錄下）：
+#   scripts/startup-benchmark.sh [jar|aot|cds] [次數]
+#
+#   jar  一般的 fat jar（mvn package）
+#   aot  Spring AOT，classpath 為 target/lib（mvn -Pfast-startup package）
+#   cds  aot 再加上 AppCDS archive（第一次執行時會先做一次訓練執行產生 target/app.jsa）
+#
+# 使用內建的 H2 in-memory 資料庫，不需要 MySQL。
+set -euo pipefail
+
+MODE="${1:-jar}"
+RUNS="${2:-5}"
+PORT="${PORT:-18080}"
+BASE="http://localhost:${PORT}"
+cd "$(dirname "$0")/.."
+
+JAR=$(ls target/*.jar | head -n 1)
+APP_ARGS=(--server.port="${PORT}" --spring.datasource.url="jdbc:h2:mem:bench" --spring.jpa.hibernate.ddl-auto=create-drop)
+AOT_CMD=(java -Dspring.aot.enabled=true
+    -Dspring.main.lazy-initialization=true -cp "${JAR}.original:target/lib/*" com.example.backend.DemoApplication)
+
+case "$MODE" in
+    jar) CMD=(java -jar "$JAR") ;;
+    aot) CMD=("${AOT_CMD[@]}") ;;
+    cds)
+        if [ ! -f target/app.jsa ]; then
+            echo "Training run: creating target/app.jsa"
+            "${AOT_CMD[0]}" -XX:ArchiveClassesAtExit=target/app.jsa -Dspring.context.exit=onRefresh \
+                "${AOT_CMD[@]:1}" "${APP_ARGS[@]}" > /dev/null 2>&1
+        fi
+        CMD=("${AOT_CMD[0]}" -XX:SharedArchiveFile=target/app.jsa "${AOT_CMD[@]:1}")
+        ;;
+    *) echo "Unknown mode: $MODE (expected jar, aot or cds)" >&2; exit 1 ;;
+esac
+
+now_ms() { date +%s%3N; }
+
+total=0
+for i in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    "${CMD[@]}" "${APP_ARGS[@]}" > "target/startup-benchmark-$MODE.log" 2>&1 &
+    pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+
+    # 註冊端點可用後取得 token，再輪詢 /api/tasks 直到回傳 200
+    token=""
+    while [ -z "$token" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Backend exited during startup, see target/startup-benchmark-$MODE.log" >&2
+            exit 1
+        fi
+        token=$(curl -s -X POST "$BASE/api/auth/register" -H 'Content-Type: application/json' \
+            -d "{\"username\":\"bench$i\",\"email\":\"bench$i@example.com\",\"password\":\"bench-password\"}" \
+            | sed -n 's/.*"token":"\([^"]*\)".*/\1/p' || true)
+        [ -n "$token" ] || sleep 0.05
+    done
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" "$BASE/api/tasks")" = "200" ]; do
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    echo "Run $i: first successful /api/tasks after ${elapsed} ms"
+    total=$(( total + elapsed ))
+
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+    trap - EXIT
+done
+
+echo "Mode $MODE: average ${total} / ${RUNS} = $(( total / RUNS )) ms to first successful /api/tasks"
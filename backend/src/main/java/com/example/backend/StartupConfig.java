@@ -0,0 +1,66 @@
+package com.example.backend;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.security.web.SecurityFilterChain;
+
+import com.example.backend.controller.TaskController;
+import com.example.backend.controller.TeamController;
+import com.example.backend.controller.UserController;
+
+import javax.sql.DataSource;
+
+/**
+ * 啟用 spring.main.lazy-initialization=true（Docker 映像預設）時，仍在啟動期間建立的 bean。
+ * 資料庫、Hibernate、安全過濾鏈與 API controller（連同其依賴）是第一個請求的必經路徑，
+ * 其餘的 bean（actuator 端點、各種 auto-configuration）延遲到第一次使用時才建立。
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class,
+                SecurityFilterChain.class, TaskController.class, TeamController.class, UserController.class);
+    }
+
+    @Bean
+    static BeanDefinitionRegistryPostProcessor aotSecurityTransformerGuard() {
+        return new AotSecurityTransformerGuard();
+    }
+
+    /**
+     * Spring Security 6.2.1 的 WebMvcSecurityConfiguration 以 BeanDefinitionRegistryPostProcessor 註冊
+     * mvcHandlerMappingIntrospectorRequestTransformer。AOT 產生的 bean 定義已經包含它，執行期 post-processor
+     * 再註冊一次就會因重複定義而啟動失敗。AOT 模式下先移除這一個定義，讓原本的 post-processor 重新註冊；
+     * 其他 bean 仍然不允許覆寫。升級到修正此問題的 Spring Security 版本後即可移除。
+     */
+    static class AotSecurityTransformerGuard implements BeanDefinitionRegistryPostProcessor, PriorityOrdered {
+
+        static final String BEAN_NAME = "mvcHandlerMappingIntrospectorRequestTransformer";
+
+        @Override
+        public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+            if (AotDetector.useGeneratedArtifacts() && registry.containsBeanDefinition(BEAN_NAME)) {
+                registry.removeBeanDefinition(BEAN_NAME);
+            }
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -1,124 +1,164 @@
 package com.example.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import org.springframework.data.domain.PageRequest;
+
+import com.example.backend.dto.TaskFilter;
 import com.example.backend.model.Task;
-import com.example.backend.model.User;
-import com.example.backend.model.Team;
-import com.example.backend.repository.TaskRepository;
-import com.example.backend.repository.UserRepository;
-import com.example.backend.repository.TeamRepository;
+import com.example.backend.model.TaskActivity;
+import com.example.backend.repository.TaskField;
+import com.example.backend.service.OperationDeniedException;
+import com.example.backend.service.TaskService;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
 
     @Autowired
-    private TaskRepository taskRepository;
-
-    @Autowired
-    private UserRepository userRepository;
+    private TaskService taskService;
 
-    @Autowired
-    private TeamRepository teamRepository;
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = authentication.getName();
-        return userRepository.findByUsername(currentUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private String getCurrentUsername() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
     }
 
-    // 取得任務 - 支援多種模式
+    // 取得任務 - 支援多種模式；includeArchived=true 時一併回傳已歸檔的任務
+    // fields=id,title,status... 時只查詢並回傳這些欄位
     @GetMapping
-    public List<Task> getTasks(@RequestParam(required = false) Long userId,
-            @RequestParam(required = false) String mode) {
-        User currentUser = getCurrentUser();
-
-        // 如果有指定 userId 且是當前用戶，使用指定用戶
-        User targetUser = (userId != null && userId.equals(currentUser.getId()))
-                ? currentUser
-                : currentUser;
+    public ResponseEntity<?> getTasks(@RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String mode,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String fields) {
+        // userId 只能是當前用戶，一律以當前用戶查詢
+        String username = getCurrentUsername();
 
         if ("personal".equals(mode)) {
             // 只返回個人任務（不包括團隊任務）
-            return taskRepository.findByUserAndTeamIsNull(targetUser);
+            return listTasks(username, TaskService.ListScope.PERSONAL, includeArchived, fields);
         } else if ("all".equals(mode)) {
             // 返回所有任務（個人 + 團隊）
-            return taskRepository.findTasksByUserIncludingTeams(targetUser);
+            return listTasks(username, TaskService.ListScope.ACCESSIBLE, includeArchived, fields);
         } else {
             // 預設：保持現有行為，返回用戶建立的所有任務（包括個人和團隊任務）
-            return taskRepository.findByUser(targetUser);
+            return listTasks(username, TaskService.ListScope.CREATED, includeArchived, fields);
         }
     }
 
+    private ResponseEntity<?> listTasks(String username, TaskService.ListScope scope, boolean includeArchived,
+            String fields) {
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(taskService.getTaskFields(username, scope, TaskField.parse(fields),
+                        includeArchived));
+            } catch (IllegalArgumentException e) {
+                Map<String, String> errorResponse = new HashMap<>();
+                errorResponse.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+        }
+        return ResponseEntity.ok(switch (scope) {
+            case PERSONAL -> taskService.getPersonalTasks(username, includeArchived);
+            case ACCESSIBLE -> taskService.getAccessibleTasks(username, includeArchived);
+            case CREATED -> taskService.getCreatedTasks(username, includeArchived);
+        });
+    }
+
     @PostMapping
     public Task addTask(@RequestParam(required = false) Long userId,
             @RequestParam(required = false) Long teamId,
             @RequestBody Task task) {
-        User currentUser = getCurrentUser();
-        task.setUser(currentUser); // 設定建立者
-
-        // 如果指定了團隊 ID，設定團隊
-        if (teamId != null) {
-            Team team = teamRepository.findById(teamId)
-                    .orElseThrow(() -> new RuntimeException("Team not found"));
-            task.setTeam(team);
-        }
+        return taskService.createTask(getCurrentUsername(), teamId, task);
+    }
 
-        if (task.getStatus() == null || task.getStatus().isEmpty()) {
-            task.setStatus("todo");
+    @PutMapping("/{id}")
+    public Task updateTask(@PathVariable Long id, @RequestBody Task body) {
+        return taskService.updateTask(getCurrentUsername(), id, body);
+    }
+
+    // 移動卡片：放到 afterId 與 beforeId 之間（可換欄位），只更新被移動的任務
+    @PutMapping("/{id}/move")
+    public ResponseEntity<?> moveTask(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+        Long afterId = request.get("afterId") != null ? ((Number) request.get("afterId")).longValue() : null;
+        Long beforeId = request.get("beforeId") != null ? ((Number) request.get("beforeId")).longValue() : null;
+        String status = (String) request.get("status");
+
+        try {
+            return ResponseEntity.ok(taskService.moveTask(getCurrentUsername(), id, status, afterId, beforeId));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid position: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
         }
+    }
+
+    @DeleteMapping("/{id}")
+    public void deleteTask(@PathVariable Long id) {
+        taskService.deleteTask(getCurrentUsername(), id);
+    }
 
-        // 如果沒有指定 assignee，預設為建立者
-        if (task.getAssignee() == null || task.getAssignee().isEmpty()) {
-            task.setAssignee(currentUser.getUsername());
+    // 取得任務操作紀錄（keyset 分頁，由新到舊）
+    @GetMapping("/{id}/activity")
+    public ResponseEntity<?> getTaskActivity(@PathVariable Long id,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 200)));
+        List<TaskActivity> items;
+        try {
+            items = taskService.getActivity(getCurrentUsername(), id, before, page);
+        } catch (OperationDeniedException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
         }
 
-        return taskRepository.save(task);
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        // 下一頁的游標；不足一頁表示已到最後
+        response.put("nextBefore", items.size() < page.getPageSize() ? null : items.get(items.size() - 1).getId());
+        return ResponseEntity.ok(response);
     }
 
-    @PutMapping("/{id}")
-    public Task updateTask(@PathVariable Long id, @RequestBody Task body) {
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
-
-        if (body.getTitle() != null)
-            task.setTitle(body.getTitle());
-        if (body.getDescription() != null)
-            task.setDescription(body.getDescription());
-        if (body.getStatus() != null)
-            task.setStatus(body.getStatus());
-        if (body.getAssignee() != null)
-            task.setAssignee(body.getAssignee());
-
-        // 如果 body 中有 dueDate（包括 null），就更新它
-        task.setDueDate(body.getDueDate());
-
-        return taskRepository.save(task);
+    // 依條件篩選可見的任務：status、assignee、teamId、dueFrom / dueTo、overdue、q（標題前綴）
+    @GetMapping("/search")
+    public List<Task> searchTasks(TaskFilter filter, @RequestParam(defaultValue = "200") int limit) {
+        return taskService.searchTasks(getCurrentUsername(), filter, Math.max(1, Math.min(limit, 1000)));
     }
 
-    @DeleteMapping("/{id}")
-    public void deleteTask(@PathVariable Long id) {
-        taskRepository.deleteById(id);
+    // 分配給我的任務（所有團隊 + 個人），以 cursor 分頁
+    @GetMapping("/assigned")
+    public ResponseEntity<?> getAssignedTasks(@RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            TaskService.AssignedPage page = taskService.getAssignedTasks(getCurrentUsername(), status, cursor,
+                    Math.max(1, Math.min(limit, 200)));
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", page.items());
+            response.put("nextCursor", page.nextCursor());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
     }
 
     // 取得用戶可見的所有任務（個人 + 參與團隊的任務）
     @GetMapping("/all")
-    public List<Task> getAllAccessibleTasks() {
-        User currentUser = getCurrentUser();
-        return taskRepository.findTasksByUserIncludingTeams(currentUser);
+    public ResponseEntity<?> getAllAccessibleTasks(@RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String fields) {
+        return listTasks(getCurrentUsername(), TaskService.ListScope.ACCESSIBLE, includeArchived, fields);
     }
 
     // 只取得個人任務
     @GetMapping("/personal")
-    public List<Task> getPersonalTasks() {
-        User currentUser = getCurrentUser();
-        return taskRepository.findByUserAndTeamIsNull(currentUser);
+    public ResponseEntity<?> getPersonalTasks(@RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String fields) {
+        return listTasks(getCurrentUsername(), TaskService.ListScope.PERSONAL, includeArchived, fields);
     }
 }
\ No newline at end of file
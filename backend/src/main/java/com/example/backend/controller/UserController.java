@@ -10,7 +10,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.example.backend.model.User;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtAuthFilter;
 import com.example.backend.security.JwtUtil;
+import com.example.backend.security.TokenRevocationList;
+import com.example.backend.sharding.ShardRouter;
+
+import io.jsonwebtoken.Claims;
 
 import java.util.Optional;
 import java.util.Map;
@@ -29,6 +34,12 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     @PostMapping("/register")
     public Map<String, Object> register(@RequestBody User user) {
         Optional<User> existingUser = userRepository.findByUsername(user.getUsername());
@@ -43,6 +54,7 @@ public class UserController {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
         User savedUser = userRepository.save(user);
+        shardRouter.replicateUser(savedUser);
         String token = jwtUtil.generateToken(savedUser.getUsername());
 
         Map<String, Object> response = new HashMap<>();
@@ -57,7 +69,8 @@ public class UserController {
 
         if (user.isPresent() && user.get().getPassword() != null
                 && passwordEncoder.matches(body.getPassword(), user.get().getPassword())) {
-            String token = jwtUtil.generateToken(user.get().getUsername());
+            String token = jwtUtil.generateToken(user.get().getUsername(),
+                    tokenRevocationList.issueTime(user.get().getUsername()));
             Map<String, Object> response = new HashMap<>();
             response.put("user", user.get());
             response.put("token", token);
@@ -70,6 +83,28 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
     }
 
+    // 撤銷目前使用的 token
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestAttribute(name = JwtAuthFilter.CLAIMS_ATTRIBUTE, required = false) Claims claims) {
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "未登入"));
+        }
+        tokenRevocationList.revokeToken(claims);
+        return ResponseEntity.ok(Map.of("message", "已登出"));
+    }
+
+    // 撤銷使用者目前所有的 token（包含這一個），其他裝置需要重新登入
+    @PostMapping("/logout-all")
+    public ResponseEntity<Map<String, String>> logoutAll(
+            @RequestAttribute(name = JwtAuthFilter.CLAIMS_ATTRIBUTE, required = false) Claims claims) {
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "未登入"));
+        }
+        tokenRevocationList.revokeAllTokens(claims.getSubject());
+        return ResponseEntity.ok(Map.of("message", "已登出所有裝置"));
+    }
+
     @GetMapping("/me")
     public ResponseEntity<User> getMe() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
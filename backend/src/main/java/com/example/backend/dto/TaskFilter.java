@@ -0,0 +1,79 @@
+package com.example.backend.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * GET /api/tasks/search 的篩選條件，未指定的條件不套用。
+ * status、teamId 可重複指定（?status=todo&status=doing）。
+ */
+public class TaskFilter {
+
+    private List<String> status;
+    private String assignee; // 負責人的 username
+    private List<Long> teamId; // 只查這些團隊的任務（不含個人任務）
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueFrom; // 截止時間下限（含）
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueTo; // 截止時間上限（不含）
+    private Boolean overdue; // 已過期且未完成
+    private String q; // 標題前綴
+
+    public List<String> getStatus() {
+        return status;
+    }
+
+    public void setStatus(List<String> status) {
+        this.status = status;
+    }
+
+    public String getAssignee() {
+        return assignee;
+    }
+
+    public void setAssignee(String assignee) {
+        this.assignee = assignee;
+    }
+
+    public List<Long> getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(List<Long> teamId) {
+        this.teamId = teamId;
+    }
+
+    public LocalDateTime getDueFrom() {
+        return dueFrom;
+    }
+
+    public void setDueFrom(LocalDateTime dueFrom) {
+        this.dueFrom = dueFrom;
+    }
+
+    public LocalDateTime getDueTo() {
+        return dueTo;
+    }
+
+    public void setDueTo(LocalDateTime dueTo) {
+        this.dueTo = dueTo;
+    }
+
+    public Boolean getOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(Boolean overdue) {
+        this.overdue = overdue;
+    }
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+}
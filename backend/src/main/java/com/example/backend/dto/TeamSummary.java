@@ -0,0 +1,83 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.TeamMember;
+
+import java.time.LocalDateTime;
+
+/**
+ * 團隊列表使用的精簡資料：不包含成員清單，只帶目前用戶的角色與成員數。
+ */
+public class TeamSummary {
+
+    public static class Creator {
+        private final Long id;
+        private final String username;
+        private final String email;
+
+        public Creator(Long id, String username, String email) {
+            this.id = id;
+            this.username = username;
+            this.email = email;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final LocalDateTime createdAt;
+    private final Creator createdBy;
+    private final TeamMember.Role role;
+    private final long memberCount;
+
+    public TeamSummary(Long id, String name, String description, LocalDateTime createdAt,
+            Long creatorId, String creatorUsername, String creatorEmail,
+            TeamMember.Role role, long memberCount) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.createdBy = creatorId != null ? new Creator(creatorId, creatorUsername, creatorEmail) : null;
+        this.role = role;
+        this.memberCount = memberCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Creator getCreatedBy() {
+        return createdBy;
+    }
+
+    public TeamMember.Role getRole() {
+        return role;
+    }
+
+    public long getMemberCount() {
+        return memberCount;
+    }
+}
@@ -1,10 +1,23 @@
 package com.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_due_date", columnList = "due_date"),
+        @Index(name = "idx_tasks_team_status_rank", columnList = "team_id, status, rank_key"),
+        @Index(name = "idx_tasks_user_team_status_rank", columnList = "user_id, team_id, status, rank_key"),
+        @Index(name = "idx_tasks_assigned_status_due", columnList = "assigned_to, status, due_date"),
+        // 篩選 API 常用的組合：團隊 / 個人範圍內依截止時間，以及標題前綴
+        @Index(name = "idx_tasks_team_due_status", columnList = "team_id, due_date, status"),
+        @Index(name = "idx_tasks_user_team_due", columnList = "user_id, team_id, due_date"),
+        @Index(name = "idx_tasks_team_title", columnList = "team_id, title"),
+        @Index(name = "idx_tasks_user_team_title", columnList = "user_id, team_id, title"),
+        // 歸檔時依完成時間取出已完成的任務
+        @Index(name = "idx_tasks_status_completed", columnList = "status, completed_at")
+})
 public class Task {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -13,7 +26,7 @@ public class Task {
     private String title;
     private String description;
     private String status;
-    private String assignee; // 保留原有字串欄位作為顯示名稱
+    private String assignee; // 顯示名稱；對應到用戶時與 assignedTo.username 一致
 
     @ManyToOne
     @JoinColumn(name = "user_id")
@@ -25,11 +38,34 @@ public class Task {
 
     @ManyToOne
     @JoinColumn(name = "assigned_to")
-    private User assignedTo; // 實際分配的用戶
+    private User assignedTo; // 實際分配的用戶（分配的依據，由 assignee 解析）
 
     @Column(name = "due_date")
     private LocalDateTime dueDate;
 
+    // 欄位內排序用的分數索引 key，範圍為 (team, status)；個人任務為 (user, status)
+    @Column(name = "rank_key")
+    private String rank;
+
+    // 進入 done 的時間，離開 done 時清除；超過 archive.after-days 後移到 tasks_archive
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // 來自 tasks_archive（includeArchived 查詢），不存入資料庫
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean archived;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        if (!"done".equals(status)) {
+            completedAt = null;
+        } else if (completedAt == null) {
+            completedAt = LocalDateTime.now();
+        }
+    }
+
     // getter & setter
     public Long getId() {
         return id;
@@ -102,4 +138,28 @@ public class Task {
     public void setDueDate(LocalDateTime dueDate) {
         this.dueDate = dueDate;
     }
-}
\ No newline at end of file
+
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+}
@@ -5,9 +5,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "teams")
+@BatchSize(size = 100) // 任務清單中的多個團隊以 IN 一次載入，而不是每個團隊一條查詢
 public class Team {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +27,7 @@ public class Team {
     
     @OneToMany(mappedBy = "team")
     @JsonManagedReference
+    @BatchSize(size = 100)
     private List<TeamMember> members;
     
     @PrePersist
@@ -7,7 +7,10 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @Entity
-@Table(name = "team_members")
+@Table(name = "team_members", indexes = {
+        @Index(name = "idx_team_members_user_team", columnList = "user_id, team_id"),
+        @Index(name = "idx_team_members_team_id", columnList = "team_id, id")
+})
 public class TeamMember {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -3,9 +3,11 @@ package com.example.backend.model;
 import java.util.List;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "users")
+@BatchSize(size = 100) // 任務的建立者與負責人以 IN 一次載入
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,27 @@
+package com.example.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.backend.model.ArchivedTask;
+import com.example.backend.model.Team;
+import com.example.backend.model.User;
+import java.util.List;
+
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+    List<ArchivedTask> findByUserOrderByIdAsc(User user);
+
+    List<ArchivedTask> findByUserAndTeamIsNullOrderByIdAsc(User user);
+
+    List<ArchivedTask> findByTeamOrderByIdAsc(Team team);
+
+    // 個人任務和用戶所屬團隊的已歸檔任務
+    @Query("SELECT a FROM ArchivedTask a WHERE a.user = :user OR a.team IN " +
+            "(SELECT tm.team FROM TeamMember tm WHERE tm.user = :user)")
+    List<ArchivedTask> findByUserIncludingTeams(@Param("user") User user);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedTask a WHERE a.team.id = :teamId")
+    int deleteByTeamId(@Param("teamId") Long teamId);
+}
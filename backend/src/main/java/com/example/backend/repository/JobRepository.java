@@ -0,0 +1,15 @@
+package com.example.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.example.backend.model.Job;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface JobRepository extends JpaRepository<Job, Long> {
+    // 同類型尚未完成的工作（週期性工作避免重複排入）
+    Optional<Job> findFirstByTypeAndStatusIn(String type, Collection<Job.Status> statuses);
+
+    // 同一個 dedupe key 尚未完成的工作
+    Optional<Job> findFirstByTypeAndDedupeKeyAndStatusIn(String type, String dedupeKey,
+            Collection<Job.Status> statuses);
+}
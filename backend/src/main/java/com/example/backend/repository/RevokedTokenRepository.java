@@ -0,0 +1,23 @@
+package com.example.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.backend.model.RevokedToken;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    // 其他 instance 新增的撤銷紀錄。已過期的列也要讀到，游標才能越過它們而不被當成跳號
+    List<RevokedToken> findByIdGreaterThanOrderByIdAsc(Long id);
+
+    // 補查之前跳過的 id
+    List<RevokedToken> findByIdIn(Collection<Long> ids);
+
+    // 清除對應 token 已過期的紀錄
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
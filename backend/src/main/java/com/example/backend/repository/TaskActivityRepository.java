@@ -0,0 +1,20 @@
+package com.example.backend.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.example.backend.model.TaskActivity;
+import java.util.List;
+import java.util.Optional;
+
+public interface TaskActivityRepository extends JpaRepository<TaskActivity, Long> {
+    // 第一頁：最新的紀錄
+    List<TaskActivity> findByTaskIdOrderByIdDesc(Long taskId, Pageable pageable);
+
+    // Keyset 分頁：取得 id 小於游標的紀錄
+    List<TaskActivity> findByTaskIdAndIdLessThanOrderByIdDesc(Long taskId, Long before, Pageable pageable);
+
+    // 任務已刪除時用來判斷讀取權限
+    Optional<TaskActivity> findFirstByTaskIdOrderByIdDesc(Long taskId);
+
+    Optional<TaskActivity> findFirstByTaskIdAndActionOrderByIdAsc(Long taskId, TaskActivity.Action action);
+}
@@ -0,0 +1,70 @@
+package com.example.backend.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 列表 API 的 fields= 可選擇的任務欄位。
+ * 關聯欄位（user、team、assignedTo）只輸出 id 與名稱，不帶完整的實體。
+ */
+public enum TaskField {
+    ID("id"),
+    TITLE("title"),
+    DESCRIPTION("description"),
+    STATUS("status"),
+    ASSIGNEE("assignee"),
+    DUE_DATE("dueDate"),
+    RANK("rank"),
+    COMPLETED_AT("completedAt"),
+    USER("user", "id", "username"),
+    TEAM("team", "id", "name"),
+    ASSIGNED_TO("assignedTo", "id", "username");
+
+    private final String property;
+    private final String[] nested;
+
+    TaskField(String property, String... nested) {
+        this.property = property;
+        this.nested = nested;
+    }
+
+    // 實體屬性名稱，同時也是 JSON 欄位名稱
+    public String getProperty() {
+        return property;
+    }
+
+    public String[] getNested() {
+        return nested;
+    }
+
+    public boolean isNested() {
+        return nested.length > 0;
+    }
+
+    /**
+     * 解析以逗號分隔的欄位清單；id 一律包含。未知的欄位拋出 IllegalArgumentException。
+     */
+    public static List<TaskField> parse(String fields) {
+        Set<TaskField> selected = new LinkedHashSet<>();
+        selected.add(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(byProperty(trimmed));
+        }
+        return new ArrayList<>(selected);
+    }
+
+    private static TaskField byProperty(String property) {
+        for (TaskField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + property);
+    }
+}
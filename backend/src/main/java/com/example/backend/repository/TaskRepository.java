@@ -1,20 +1,29 @@
 package com.example.backend.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.example.backend.model.Task;
 import com.example.backend.model.Team;
 import com.example.backend.model.User;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>,
+        TaskRepositoryCustom {
     // 個人任務
     List<Task> findByUser(User user);
 
     // 團隊任務
     List<Task> findByTeam(Team team);
 
+    // 團隊看板：依欄位與排序 key 排列，走 (team_id, status, rank_key) 索引
+    List<Task> findByTeamOrderByStatusAscRankAscIdAsc(Team team);
+
     // 混合查詢：包括個人任務和用戶所屬團隊的任務
     @Query("SELECT t FROM Task t WHERE t.user = :user OR t.team IN " +
             "(SELECT tm.team FROM TeamMember tm WHERE tm.user = :user)")
@@ -22,4 +31,82 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     // 個人任務（不包括團隊任務）
     List<Task> findByUserAndTeamIsNull(User user);
-}
\ No newline at end of file
+
+    // 個人看板：依欄位與排序 key 排列
+    List<Task> findByUserAndTeamIsNullOrderByStatusAscRankAscIdAsc(User user);
+
+    // 欄位中排序最後的任務，新任務排在它之後
+    Optional<Task> findFirstByTeamAndStatusOrderByRankDesc(Team team, String status);
+
+    Optional<Task> findFirstByUserAndTeamIsNullAndStatusOrderByRankDesc(User user, String status);
+
+    // 需要重新平衡的欄位：排序 key 過長、尚未設定，或與同欄位的其他任務重複
+    @Query("SELECT DISTINCT t.team.id, t.status FROM Task t " +
+            "WHERE t.team IS NOT NULL AND (t.rank IS NULL OR LENGTH(t.rank) > :maxLength OR EXISTS " +
+            "(SELECT o.id FROM Task o WHERE o.team = t.team AND o.status = t.status AND o.rank = t.rank " +
+            "AND o.id <> t.id))")
+    List<Object[]> findTeamColumnsNeedingRebalance(@Param("maxLength") int maxLength);
+
+    @Query("SELECT DISTINCT t.user.id, t.status FROM Task t " +
+            "WHERE t.team IS NULL AND (t.rank IS NULL OR LENGTH(t.rank) > :maxLength OR EXISTS " +
+            "(SELECT o.id FROM Task o WHERE o.user = t.user AND o.team IS NULL AND o.status = t.status " +
+            "AND o.rank = t.rank AND o.id <> t.id))")
+    List<Object[]> findPersonalColumnsNeedingRebalance(@Param("maxLength") int maxLength);
+
+    // 重新平衡時只讀 id，更新時只寫排序 key，不覆寫並行交易對其他欄位的修改
+    @Query("SELECT t.id FROM Task t WHERE t.team.id = :teamId AND t.status = :status ORDER BY t.rank ASC, t.id ASC")
+    List<Long> findColumnIdsByTeam(@Param("teamId") Long teamId, @Param("status") String status);
+
+    @Query("SELECT t.id FROM Task t WHERE t.user.id = :userId AND t.team IS NULL AND t.status = :status " +
+            "ORDER BY t.rank ASC, t.id ASC")
+    List<Long> findPersonalColumnIds(@Param("userId") Long userId, @Param("status") String status);
+
+    // 任務已移到其他欄位時不更新
+    @Modifying
+    @Query("UPDATE Task t SET t.rank = :rank WHERE t.id = :id AND t.status = :status")
+    int updateRank(@Param("id") Long id, @Param("status") String status, @Param("rank") String rank);
+
+    // 背景刪除團隊時分批取出任務
+    List<Task> findByTeamIdOrderByIdAsc(Long teamId, Pageable pageable);
+
+    long countByTeamId(Long teamId);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.team.id = :teamId AND (t.status IS NULL OR t.status <> 'done')")
+    long countIncompleteByTeamId(@Param("teamId") Long teamId);
+
+    // 分配給用戶的任務（自己的個人任務或仍是成員的團隊任務），依 (due_date, id) keyset 分頁。
+    // 個人任務只對建立者可見，別人的個人任務即使 assignee 是該用戶也不回傳
+    // 走 (assigned_to, status, due_date) 索引；afterDue 為 null 表示第一頁
+    @Query("SELECT t FROM Task t WHERE t.assignedTo = :user AND (:status IS NULL OR t.status = :status) " +
+            "AND t.dueDate IS NOT NULL " +
+            "AND (:afterDue IS NULL OR t.dueDate > :afterDue OR (t.dueDate = :afterDue AND t.id > :afterId)) " +
+            "AND ((t.team IS NULL AND t.user = :user) OR t.team IN (SELECT tm.team FROM TeamMember tm WHERE tm.user = :user)) " +
+            "ORDER BY t.dueDate ASC, t.id ASC")
+    List<Task> findAssignedWithDueDate(@Param("user") User user, @Param("status") String status,
+            @Param("afterDue") LocalDateTime afterDue, @Param("afterId") Long afterId, Pageable pageable);
+
+    // 沒有截止時間的分配任務排在最後，依 id 分頁
+    @Query("SELECT t FROM Task t WHERE t.assignedTo = :user AND (:status IS NULL OR t.status = :status) " +
+            "AND t.dueDate IS NULL AND t.id > :afterId " +
+            "AND ((t.team IS NULL AND t.user = :user) OR t.team IN (SELECT tm.team FROM TeamMember tm WHERE tm.user = :user)) " +
+            "ORDER BY t.id ASC")
+    List<Task> findAssignedWithoutDueDate(@Param("user") User user, @Param("status") String status,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    // 舊資料只有 assignee 字串，補上對應的 assigned_to
+    @Modifying
+    @Query("UPDATE Task t SET t.assignedTo = (SELECT u FROM User u WHERE u.username = t.assignee) " +
+            "WHERE t.assignedTo IS NULL AND t.assignee IS NOT NULL")
+    int backfillAssignedTo();
+
+    // 截止時間在 [from, to) 之間且未完成的任務，走 due_date 索引，只取提醒需要的欄位
+    @Query("SELECT t.id AS id, t.dueDate AS dueDate FROM Task t " +
+            "WHERE t.dueDate >= :from AND t.dueDate < :to AND (t.status IS NULL OR t.status <> 'done')")
+    List<DueDateView> findDueDatesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface DueDateView {
+        Long getId();
+
+        LocalDateTime getDueDate();
+    }
+}
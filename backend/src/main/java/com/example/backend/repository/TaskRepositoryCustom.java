@@ -0,0 +1,16 @@
+package com.example.backend.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+public interface TaskRepositoryCustom {
+    /**
+     * 只 SELECT 指定的欄位（Task 或 ArchivedTask），每列以欄位名稱為 key 回傳；
+     * 關聯欄位以 LEFT JOIN 取出 id 與名稱，輸出為巢狀的 Map（關聯為 null 時為 null）。
+     */
+    <E> List<Map<String, Object>> findFields(Class<E> entity, Specification<E> where, Sort sort,
+            List<TaskField> fields);
+}
@@ -0,0 +1,70 @@
+package com.example.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <E> List<Map<String, Object>> findFields(Class<E> entity, Specification<E> where, Sort sort,
+            List<TaskField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entity);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (TaskField field : fields) {
+            if (field.isNested()) {
+                Join<E, ?> join = root.join(field.getProperty(), JoinType.LEFT);
+                for (String attribute : field.getNested()) {
+                    selections.add(join.get(attribute).alias(field.getProperty() + "." + attribute));
+                }
+            } else {
+                selections.add(root.get(field.getProperty()).alias(field.getProperty()));
+            }
+        }
+        query.multiselect(selections);
+        Predicate predicate = where.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TaskField field : fields) {
+                if (!field.isNested()) {
+                    row.put(field.getProperty(), tuple.get(field.getProperty()));
+                    continue;
+                }
+                Map<String, Object> related = new LinkedHashMap<>();
+                for (String attribute : field.getNested()) {
+                    related.put(attribute, tuple.get(field.getProperty() + "." + attribute));
+                }
+                row.put(field.getProperty(), related.get("id") == null ? null : related);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
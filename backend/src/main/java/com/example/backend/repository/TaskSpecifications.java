@@ -0,0 +1,63 @@
+package com.example.backend.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 任務篩選條件。範圍（personalOf / inTeams）刻意分成兩個查詢而不是用 OR 合併，
+ * 讓每個查詢都能以 user_id 或 team_id 開頭的複合索引執行。
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    // 個人任務：走 (user_id, team_id, status, ...) 索引
+    // 範圍條件不限定實體型別，tasks 與 tasks_archive 共用
+    public static <T> Specification<T> personalOf(User user) {
+        return (root, query, cb) -> cb.and(cb.equal(root.get("user"), user), cb.isNull(root.get("team")));
+    }
+
+    // 團隊任務：走 (team_id, ...) 索引
+    public static <T> Specification<T> inTeams(Collection<Long> teamIds) {
+        return (root, query, cb) -> root.get("team").get("id").in(teamIds);
+    }
+
+    // 用戶建立的任務（個人與團隊）
+    public static <T> Specification<T> createdBy(User user) {
+        return (root, query, cb) -> cb.equal(root.get("user"), user);
+    }
+
+    public static Specification<Task> statusIn(Collection<String> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<Task> assignedTo(User user) {
+        return (root, query, cb) -> cb.equal(root.get("assignedTo"), user);
+    }
+
+    public static Specification<Task> dueFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), from);
+    }
+
+    public static Specification<Task> dueBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("dueDate"), to);
+    }
+
+    // 已過截止時間且未完成
+    public static Specification<Task> overdue(LocalDateTime now) {
+        return (root, query, cb) -> cb.and(cb.lessThan(root.get("dueDate"), now),
+                cb.or(cb.isNull(root.get("status")), cb.notEqual(root.get("status"), "done")));
+    }
+
+    // 標題前綴（LIKE 'prefix%' 可以使用索引的範圍掃描）
+    public static Specification<Task> titleStartsWith(String prefix) {
+        String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return (root, query, cb) -> cb.like(root.get("title"), escaped + "%", '\\');
+    }
+}
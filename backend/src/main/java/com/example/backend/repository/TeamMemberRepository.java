@@ -1,6 +1,10 @@
 package com.example.backend.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.backend.model.TeamMember;
 import com.example.backend.model.Team;
 import com.example.backend.model.User;
@@ -8,7 +12,19 @@ import java.util.List;
 import java.util.Optional;
 
 public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
+    // 成員的 user 以 join 一次載入，避免逐筆查詢
+    @EntityGraph(attributePaths = "user")
     List<TeamMember> findByTeam(Team team);
+
+    // Keyset 分頁：取得 id 大於游標的成員
+    @EntityGraph(attributePaths = "user")
+    List<TeamMember> findByTeamAndIdGreaterThanOrderByIdAsc(Team team, Long afterId, Pageable pageable);
+
     List<TeamMember> findByUser(User user);
+
+    // 只取 team id，(user_id, team_id) 索引即可回答
+    @Query("SELECT tm.team.id FROM TeamMember tm WHERE tm.user = :user")
+    List<Long> findTeamIdsByUser(@Param("user") User user);
+
     Optional<TeamMember> findByTeamAndUser(Team team, User user);
-}
\ No newline at end of file
+}
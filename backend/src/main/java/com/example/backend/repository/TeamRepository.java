@@ -3,6 +3,7 @@ package com.example.backend.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import com.example.backend.dto.TeamSummary;
 import com.example.backend.model.Team;
 import com.example.backend.model.User;
 import java.util.List;
@@ -10,6 +11,11 @@ import java.util.List;
 public interface TeamRepository extends JpaRepository<Team, Long> {
     List<Team> findByCreatedBy(User createdBy);
 
-    @Query("SELECT t FROM Team t JOIN t.members tm WHERE tm.user = :user")
-    List<Team> findTeamsByUser(@Param("user") User user);
+    // 用戶參與的團隊：一次查詢取得團隊、用戶角色與成員數，不載入成員清單
+    @Query("SELECT new com.example.backend.dto.TeamSummary(t.id, t.name, t.description, t.createdAt, " +
+            "cb.id, cb.username, cb.email, my.role, COUNT(m.id)) " +
+            "FROM TeamMember my JOIN my.team t LEFT JOIN t.createdBy cb JOIN TeamMember m ON m.team = t " +
+            "WHERE my.user = :user " +
+            "GROUP BY t.id, t.name, t.description, t.createdAt, cb.id, cb.username, cb.email, my.role")
+    List<TeamSummary> findTeamSummariesByUser(@Param("user") User user);
 }
@@ -0,0 +1,82 @@
+package com.example.backend.security;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一類端點的併發上限與等待佇列。名額用完時請求依到達順序排隊，
+ * 但排隊的人數超過上限、或依平均處理時間估計的等待時間超過 maxWaitNanos 時立即拒絕，
+ * 不讓請求佔著 worker thread 等到逾時才失敗。
+ */
+class Bulkhead {
+
+    enum Rejection {
+        QUEUE_FULL, PREDICTED_WAIT, TIMEOUT
+    }
+
+    // 平均處理時間的平滑係數
+    private static final double ALPHA = 0.2;
+
+    private final int limit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    // 公平模式：排隊中的請求依到達順序取得名額
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    // 只用於估計等待時間，並行更新時偶爾遺失一筆樣本無妨，不加鎖
+    private volatile long avgServiceNanos;
+
+    Bulkhead(int limit, int maxQueue, long maxWaitNanos) {
+        this.limit = limit;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWaitNanos;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * 取得一個執行名額。成功回傳 null，否則回傳拒絕的原因；成功後必須呼叫 release。
+     */
+    Rejection acquire() throws InterruptedException {
+        // 帶逾時的 tryAcquire 遵守公平順序，不會插隊到排隊中的請求前面
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+        int position = waiting.incrementAndGet();
+        try {
+            if (position > maxQueue) {
+                return Rejection.QUEUE_FULL;
+            }
+            // 前面的請求每一輪佔滿 limit 個名額，每輪約需一個平均處理時間
+            long predictedWait = (long) Math.ceil((double) position / limit) * avgServiceNanos;
+            if (predictedWait > maxWaitNanos) {
+                return Rejection.PREDICTED_WAIT;
+            }
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) ? null : Rejection.TIMEOUT;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    void release(long serviceNanos) {
+        long avg = avgServiceNanos;
+        avgServiceNanos = avg == 0 ? serviceNanos : (long) (avg + ALPHA * (serviceNanos - avg));
+        permits.release();
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int active() {
+        return limit - permits.availablePermits();
+    }
+
+    int queued() {
+        return waiting.get();
+    }
+
+    long avgServiceNanos() {
+        return avgServiceNanos;
+    }
+}
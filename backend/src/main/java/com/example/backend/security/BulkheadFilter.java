@@ -0,0 +1,159 @@
+package com.example.backend.security;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.backend.security.RateLimitFilter.EndpointClass;
+import com.example.backend.sharding.ShardRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 依端點類別（與 RateLimitFilter 相同的分類）隔離的併發上限。
+ * 每類請求最多只能同時佔用連線池的一部分：未分片時 open-in-view 讓一個請求從第一次查詢到回應結束都持有一條連線；
+ * 分片時 open-in-view 關閉，請求只在 ShardRouter 的交易期間持有連線，每個分片一次最多一條（跨分片查詢平行各取一條），
+ * 且幾乎每個請求都會用到存放使用者的分片 0，因此以實際連線池（分片時取最小的分片連線池）的大小計算。
+ * 緩慢的刪除團隊或跨團隊彙整查詢不會把連線池與 Tomcat worker 全部佔滿，讓看板讀取排在後面。
+ * 名額用完時短暫排隊，預估等不到名額時立即回傳 503，而不是等連線池逾時才失敗。
+ * 各類別的比例加總小於 1，保留給背景工作（job queue、快取失效輪詢等）。
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    // poolShare：佔連線池的比例；maxQueue / maxWaitMs：排隊的人數與時間上限
+    private record Defaults(double poolShare, int maxQueue, long maxWaitMs) {
+    }
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final boolean enabled;
+    private final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Map<Bulkhead.Rejection, Counter>> rejected = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Timer> queueWait = new EnumMap<>(EndpointClass.class);
+
+    public BulkheadFilter(Environment environment, MeterRegistry meterRegistry, DataSource dataSource,
+            @Value("${bulkhead.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        int poolSize = environment.getProperty("bulkhead.pool-size", Integer.class, poolSize(dataSource));
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            Defaults defaults = defaults(endpointClass);
+            String name = endpointClass.name().toLowerCase();
+            String prefix = "bulkhead." + name + ".";
+            double share = environment.getProperty(prefix + "pool-share", Double.class, defaults.poolShare());
+            int limit = environment.getProperty(prefix + "max-concurrent", Integer.class,
+                    Math.max(1, (int) (poolSize * share)));
+            Bulkhead bulkhead = new Bulkhead(limit,
+                    environment.getProperty(prefix + "max-queue", Integer.class, defaults.maxQueue()),
+                    TimeUnit.MILLISECONDS.toNanos(
+                            environment.getProperty(prefix + "max-wait-ms", Long.class, defaults.maxWaitMs())));
+            bulkheads.put(endpointClass, bulkhead);
+
+            Gauge.builder("bulkhead.active", bulkhead, Bulkhead::active)
+                    .description("Requests currently holding a bulkhead permit")
+                    .tag("endpoint_class", name)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.queued", bulkhead, Bulkhead::queued)
+                    .description("Requests waiting for a bulkhead permit")
+                    .tag("endpoint_class", name)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.limit", bulkhead, Bulkhead::limit)
+                    .description("Concurrent requests allowed by the bulkhead")
+                    .tag("endpoint_class", name)
+                    .register(meterRegistry);
+            Map<Bulkhead.Rejection, Counter> counters = new EnumMap<>(Bulkhead.Rejection.class);
+            for (Bulkhead.Rejection reason : Bulkhead.Rejection.values()) {
+                counters.put(reason, Counter.builder("bulkhead.rejected")
+                        .description("Requests shed with 503 by the bulkhead")
+                        .tag("endpoint_class", name)
+                        .tag("reason", reason.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            rejected.put(endpointClass, counters);
+            queueWait.put(endpointClass, Timer.builder("bulkhead.queue_wait")
+                    .description("Time admitted requests waited for a bulkhead permit")
+                    .tag("endpoint_class", name)
+                    .register(meterRegistry));
+        }
+    }
+
+    // 連線池的上限；分片時每個請求在每個分片各自取連線，以最小的分片為準。無法判斷時使用 Hikari 的預設值
+    static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof ShardRoutingDataSource routing) {
+            return routing.getResolvedDataSources().values().stream()
+                    .mapToInt(BulkheadFilter::poolSize)
+                    .min()
+                    .orElse(DEFAULT_POOL_SIZE);
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // 無法判斷，使用預設值
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    private static Defaults defaults(EndpointClass endpointClass) {
+        return switch (endpointClass) {
+            case AUTH -> new Defaults(0.2, 20, 500);
+            case READ -> new Defaults(0.4, 50, 200);
+            case WRITE -> new Defaults(0.2, 20, 500);
+            case HEAVY -> new Defaults(0.1, 5, 1000);
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        EndpointClass endpointClass = RateLimitFilter.classify(request);
+        Bulkhead bulkhead = bulkheads.get(endpointClass);
+        long arrived = System.nanoTime();
+        Bulkhead.Rejection rejection;
+        try {
+            rejection = bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejection = Bulkhead.Rejection.TIMEOUT;
+        }
+        if (rejection != null) {
+            rejected.get(endpointClass).get(rejection).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy\"}");
+            return;
+        }
+
+        long admitted = System.nanoTime();
+        queueWait.get(endpointClass).record(admitted - arrived, TimeUnit.NANOSECONDS);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.release(System.nanoTime() - admitted);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.backend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.example.backend.service.IdempotencyStore;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * 支援 Idempotency-Key 標頭的建立端點（POST /api/tasks、/api/teams、/api/teams/{teamId}/tasks）。
+ * 重送的請求直接取得第一次的回應，不會再執行 controller；並行中的重複請求會等待第一個請求完成。
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Pattern IDEMPOTENT_PATHS = Pattern.compile("/api/tasks|/api/teams|/api/teams/[^/]+/tasks");
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !IDEMPOTENT_PATHS.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        // key 只在同一使用者、同一端點內有效
+        String keyHash = sha256(authentication.getName() + "\n" + request.getRequestURI() + "\n"
+                + request.getHeader(HEADER));
+        String fingerprint = sha256(request.getQueryString() + "\n" + new String(body, StandardCharsets.UTF_8));
+
+        IdempotencyStore.Claim claim = idempotencyStore.claim(keyHash, fingerprint);
+        IdempotencyStore.Entry entry = claim.entry();
+        if (!claim.owner()) {
+            if (!entry.fingerprint().equals(fingerprint)) {
+                writeError(response, 422, "Idempotency-Key was already used with a different request");
+                return;
+            }
+            replay(entry, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyStore.abandon(keyHash, entry, new IdempotencyStore.StoredResponse(500,
+                    MediaType.APPLICATION_JSON_VALUE, "{\"error\":\"Original request failed\"}".getBytes(StandardCharsets.UTF_8)));
+            throw e;
+        }
+
+        IdempotencyStore.StoredResponse stored = new IdempotencyStore.StoredResponse(cachingResponse.getStatus(),
+                cachingResponse.getContentType(), cachingResponse.getContentAsByteArray());
+        // 5xx 不保留，讓用戶端可以重試
+        if (stored.status() >= 500) {
+            idempotencyStore.abandon(keyHash, entry, stored);
+        } else {
+            idempotencyStore.complete(keyHash, entry, stored);
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyStore.Entry entry, HttpServletResponse response) throws IOException {
+        IdempotencyStore.StoredResponse stored;
+        try {
+            stored = entry.response().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            writeError(response, 409, "A request with this Idempotency-Key is still in progress");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, 503, "Interrupted while waiting for the original request");
+            return;
+        } catch (ExecutionException e) {
+            writeError(response, 500, "Original request failed");
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 先把請求內容讀進記憶體計算 fingerprint，再交給後續的 controller 讀取
+    static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // 內容已完整在記憶體中，隨時可讀：立即通知可讀取，接著通知已讀完
+                    Objects.requireNonNull(listener, "listener");
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -14,13 +14,20 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import io.jsonwebtoken.Claims;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // 驗證通過的 token claims，供登出等需要知道目前 token 的端點使用
+    public static final String CLAIMS_ATTRIBUTE = "com.example.backend.security.JwtAuthFilter.claims";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -35,7 +42,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtUtil.extractClaim(jwt, Claims::getSubject); // 從 token 中取得使用者名稱
+        final Claims claims = jwtUtil.extractClaim(jwt, Function.identity());
+        username = claims.getSubject(); // 從 token 中取得使用者名稱
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = new UserDetails() {
@@ -75,11 +83,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 }
             };
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (jwtUtil.validateToken(jwt, userDetails) && !tokenRevocationList.isRevoked(claims)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                request.setAttribute(CLAIMS_ATTRIBUTE, claims);
             }
         }
         filterChain.doFilter(request, response);
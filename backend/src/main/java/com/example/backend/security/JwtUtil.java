@@ -10,11 +10,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    public static final long TOKEN_VALIDITY_MS = 1000L * 60 * 60 * 10; // 10 hours
+
     private final String SECRET_KEY = "your-secret-key-that-is-at-least-32-characters-long";
 
     private SecretKey getSigningKey() {
@@ -23,16 +26,22 @@ public class JwtUtil {
     }
 
     public String generateToken(String username) {
+        return generateToken(username, new Date());
+    }
+
+    // issuedAt 可能稍晚於現在（見 TokenRevocationList.issueTime）
+    public String generateToken(String username, Date issuedAt) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        return createToken(claims, username, issuedAt);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, Date issuedAt) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
+                .id(UUID.randomUUID().toString()) // 登出時用來撤銷單一 token
+                .issuedAt(issuedAt)
+                .expiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MS))
                 .signWith(getSigningKey())
                 .compact();
     }
@@ -0,0 +1,156 @@
+package com.example.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 每位使用者、每類端點各自一個 token bucket。
+ * 放在 JwtAuthFilter 之後，才能以登入的使用者名稱作為 key；未登入的請求以來源 IP 計算。
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        AUTH(10, 1), READ(60, 20), WRITE(30, 10), HEAVY(5, 0.5);
+
+        private final int defaultCapacity;
+        private final double defaultPerSecond;
+
+        EndpointClass(int defaultCapacity, double defaultPerSecond) {
+            this.defaultCapacity = defaultCapacity;
+            this.defaultPerSecond = defaultPerSecond;
+        }
+    }
+
+    private static final Pattern TEAM_PATH = Pattern.compile("/api/teams/[^/]+");
+
+    private final boolean enabled;
+    private final long idleNanos;
+    private final Map<EndpointClass, Integer> capacities = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Double> rates = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, ConcurrentHashMap<String, TokenBucket>> buckets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> throttled = new EnumMap<>(EndpointClass.class);
+    private final ScheduledExecutorService evictor;
+
+    public RateLimitFilter(Environment environment, MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.idle-evict-ms:600000}") long idleEvictMs) {
+        this.enabled = enabled;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictMs);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "rate-limit." + endpointClass.name().toLowerCase() + ".";
+            capacities.put(endpointClass,
+                    environment.getProperty(prefix + "capacity", Integer.class, endpointClass.defaultCapacity));
+            rates.put(endpointClass,
+                    environment.getProperty(prefix + "per-second", Double.class, endpointClass.defaultPerSecond));
+            buckets.put(endpointClass, new ConcurrentHashMap<>());
+            throttled.put(endpointClass, Counter.builder("rate_limit.throttled")
+                    .description("Requests rejected with 429 by the per-user rate limiter")
+                    .tag("endpoint_class", endpointClass.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("rate_limit.buckets", buckets, b -> b.values().stream().mapToInt(Map::size).sum())
+                .description("Active rate limiter buckets")
+                .register(meterRegistry);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rate-limit-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long sweepMs = Math.max(1000, idleEvictMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        EndpointClass endpointClass = classify(request);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(endpointClass).computeIfAbsent(clientKey(request),
+                key -> new TokenBucket(capacities.get(endpointClass), rates.get(endpointClass), now));
+        long waitNanos = bucket.tryAcquire(now);
+
+        if (waitNanos > 0) {
+            throttled.get(endpointClass).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        if (path.startsWith("/api/auth/")) {
+            return EndpointClass.AUTH;
+        }
+        // 跨團隊彙整查詢與刪除團隊的成本遠高於一般請求
+        if ("GET".equals(method) && (path.equals("/api/tasks/all")
+                || (path.equals("/api/tasks") && "all".equals(request.getParameter("mode"))))) {
+            return EndpointClass.HEAVY;
+        }
+        if ("DELETE".equals(method) && TEAM_PATH.matcher(path).matches()) {
+            return EndpointClass.HEAVY;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return EndpointClass.READ;
+        }
+        return EndpointClass.WRITE;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, TokenBucket> map : buckets.values()) {
+            // 閒置夠久的 bucket 必定已回補滿，移除後重建的效果相同
+            map.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        }
+    }
+}
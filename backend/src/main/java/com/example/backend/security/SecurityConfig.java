@@ -22,9 +22,16 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final BulkheadFilter bulkheadFilter;
+    private final IdempotencyFilter idempotencyFilter;
 
-    public SecurityConfig(JwtAuthFilter jwtAuthFilter) {
+    public SecurityConfig(JwtAuthFilter jwtAuthFilter, RateLimitFilter rateLimitFilter,
+            BulkheadFilter bulkheadFilter, IdempotencyFilter idempotencyFilter) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.bulkheadFilter = bulkheadFilter;
+        this.idempotencyFilter = idempotencyFilter;
     }
 
     @Bean
@@ -36,6 +43,9 @@ public class SecurityConfig {
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthFilter.class) // 依使用者限流，需在 JWT 驗證之後
+                .addFilterAfter(bulkheadFilter, RateLimitFilter.class) // 超過限流的請求不佔用名額
+                .addFilterAfter(idempotencyFilter, BulkheadFilter.class)
                 .exceptionHandling(e -> e.authenticationEntryPoint(new BasicAuthenticationEntryPoint())); // 新增: 處理認證失敗
         return http.build();
     }
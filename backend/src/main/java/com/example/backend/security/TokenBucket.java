@@ -0,0 +1,44 @@
+package com.example.backend.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 無鎖 token bucket，以 GCRA（generic cell rate algorithm）實作：
+ * 只記錄一個「理論到達時間」，每次請求用一次 CAS 更新，不需要鎖。
+ */
+class TokenBucket {
+
+    // 每個 token 的間隔（奈秒）
+    private final long emissionIntervalNanos;
+    // 可累積的突發量對應的時間長度
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(int capacity, double tokensPerSecond, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 嘗試取得一個 token。成功回傳 0，否則回傳需要等待的奈秒數。
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // 已完全回補且超過 idleNanos 沒有使用
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival.get() > idleNanos;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.RevokedToken;
+import com.example.backend.repository.RevokedTokenRepository;
+import com.example.backend.sharding.ShardRouter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已撤銷的 JWT。撤銷紀錄寫入 revoked_tokens（與使用者同在 shard 0），並在記憶體中保留一份：
+ * 前面是 Bloom filter，後面是精確的 map。絕大多數未被撤銷的 token 只需要幾次雜湊探測就能放行，
+ * 不需要任何 I/O；filter 判定可能存在時才查 map。
+ * 其他 instance 新增的紀錄定期從資料表載入；較小的 id 可能比較大的 id 晚提交，讀到跳號時會在
+ * auth.revocation.gap-timeout-ms 內持續補查缺少的 id（與 InvalidationBus 相同）。
+ * token 本身過期後紀錄即失效，定期從記憶體與資料表清除，並重建 filter 讓已清除的 key 不再佔用位元。
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final String TOKEN_KEY = "jti:";
+    private static final String USER_KEY = "user:";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // 同時追蹤的跳號上限，避免 id 大幅跳躍時佔用過多記憶體
+    private static final int MAX_GAPS = 1000;
+    private static final long SECOND_MS = 1000;
+
+    // 撤銷某位使用者 iat 早於 revokedAtMs 的所有 token。iat 只精確到秒，revokedAtMs 一律是整秒
+    private record Cutoff(long revokedAtMs, long expiresAtMs) {
+    }
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.revocation.expected-entries:10000}")
+    private int expectedEntries;
+
+    @Value("${auth.revocation.refresh-ms:5000}")
+    private long refreshMs;
+
+    @Value("${auth.revocation.purge-ms:600000}")
+    private long purgeMs;
+
+    @Value("${auth.revocation.gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    // jti -> token 的到期時間
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Cutoff> userCutoffs = new ConcurrentHashMap<>();
+    // 新增與重建 filter 互斥，避免重建時漏掉剛加入的 key；查詢不需要鎖
+    private final Object writeLock = new Object();
+    private volatile BloomFilter filter;
+    // 以下只由 refresh 存取（啟動時一次，之後只在 refresher 執行緒）
+    private long lastSeenId;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>(); // 缺少的 id -> 放棄補查的時間
+
+    private Counter revokedHits;
+    private Counter falsePositives;
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    void start() {
+        filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+        revokedHits = Counter.builder("auth.revocation.filter_hits").tag("result", "revoked")
+                .description("Tokens that passed the Bloom filter and were found revoked")
+                .register(meterRegistry);
+        falsePositives = Counter.builder("auth.revocation.filter_hits").tag("result", "false_positive")
+                .description("Tokens that passed the Bloom filter but were not revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.entries", this, TokenRevocationList::size)
+                .description("Revocation entries held in memory")
+                .register(meterRegistry);
+
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-revocation-refresher");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        refresher.scheduleWithFixedDelay(this::purgeExpired, purgeMs, purgeMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * token 是否已被撤銷。呼叫前 token 的簽章與期限應已驗證過。
+     */
+    public boolean isRevoked(Claims claims) {
+        BloomFilter current = filter;
+        String tokenId = claims.getId();
+        String username = claims.getSubject();
+        boolean candidate = (tokenId != null && current.mightContain(TOKEN_KEY + tokenId))
+                || (username != null && current.mightContain(USER_KEY + username));
+        if (!candidate) {
+            return false;
+        }
+
+        boolean revoked = tokenId != null && revokedTokens.containsKey(tokenId);
+        if (!revoked && username != null) {
+            Cutoff cutoff = userCutoffs.get(username);
+            Date issuedAt = claims.getIssuedAt();
+            revoked = cutoff != null && (issuedAt == null || issuedAt.getTime() < cutoff.revokedAtMs());
+        }
+        (revoked ? revokedHits : falsePositives).increment();
+        return revoked;
+    }
+
+    /**
+     * 撤銷單一 token（登出）。
+     */
+    public void revokeToken(Claims claims) {
+        if (claims.getId() == null) {
+            // 加入 jti 之前簽發的 token 無法單獨識別，改為撤銷該使用者在它之前（含同一秒）簽發的 token
+            revoke(null, claims.getSubject(), toLocal(claims.getIssuedAt().getTime() + SECOND_MS),
+                    toLocal(claims.getExpiration().getTime()));
+            return;
+        }
+        revoke(claims.getId(), claims.getSubject(), LocalDateTime.now(), toLocal(claims.getExpiration().getTime()));
+    }
+
+    /**
+     * 撤銷使用者目前所有的 token（登出所有裝置）。
+     * 撤銷時間記為下一個整秒，同一秒內稍早簽發的 token 也一併撤銷；之後簽發的 token 由 issueTime 避開這一秒。
+     */
+    public void revokeAllTokens(String username) {
+        long cutoffMs = (System.currentTimeMillis() / SECOND_MS + 1) * SECOND_MS;
+        // 撤銷時間之前簽發的 token 最晚在一個有效期後過期
+        revoke(null, username, toLocal(cutoffMs), toLocal(cutoffMs + JwtUtil.TOKEN_VALIDITY_MS));
+    }
+
+    /**
+     * 新 token 的簽發時間：不早於該使用者的撤銷時間，登出所有裝置後同一秒內登入的 token 不會被視為已撤銷。
+     * 只看本機已載入的紀錄，在其他 instance 登出所有裝置後一秒內、本機載入前於此登入的 token 仍會被撤銷。
+     */
+    public Date issueTime(String username) {
+        long now = System.currentTimeMillis();
+        Cutoff cutoff = userCutoffs.get(username);
+        return new Date(cutoff == null ? now : Math.max(now, cutoff.revokedAtMs()));
+    }
+
+    int size() {
+        return revokedTokens.size() + userCutoffs.size();
+    }
+
+    private void revoke(String tokenId, String username, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        RevokedToken entry = new RevokedToken();
+        entry.setTokenId(tokenId);
+        entry.setUsername(username);
+        entry.setRevokedAt(revokedAt);
+        entry.setExpiresAt(expiresAt);
+        RevokedToken saved = shardRouter.onShard(0, () -> revokedTokenRepository.save(entry));
+        add(saved);
+    }
+
+    private void add(RevokedToken entry) {
+        long expiresAtMs = toMillis(entry.getExpiresAt());
+        synchronized (writeLock) {
+            if (entry.getTokenId() != null) {
+                revokedTokens.merge(entry.getTokenId(), expiresAtMs, Math::max);
+                filter.put(TOKEN_KEY + entry.getTokenId());
+            } else {
+                userCutoffs.merge(entry.getUsername(), new Cutoff(toMillis(entry.getRevokedAt()), expiresAtMs),
+                        (a, b) -> new Cutoff(Math.max(a.revokedAtMs(), b.revokedAtMs()),
+                                Math.max(a.expiresAtMs(), b.expiresAtMs())));
+                filter.put(USER_KEY + entry.getUsername());
+            }
+        }
+    }
+
+    // 載入其他 instance 新增的撤銷紀錄（本機新增的也會再載入一次，合併結果相同）
+    private void refresh() {
+        try {
+            long now = System.currentTimeMillis();
+            List<RevokedToken> entries = shardRouter.readOnShard(0, () -> revokedTokenRepository
+                    .findByIdGreaterThanOrderByIdAsc(lastSeenId));
+            for (RevokedToken entry : entries) {
+                // 第一次載入前的跳號多半是已清除的列，不追蹤
+                for (long missing = lastSeenId + 1; lastSeenId > 0 && missing < entry.getId()
+                        && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now + gapTimeoutMs);
+                }
+                addUnlessExpired(entry, now);
+                lastSeenId = entry.getId();
+            }
+            refreshGaps(now);
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh revoked tokens", e);
+        }
+    }
+
+    // 補查之前跳過的 id：較早取得 id 的交易可能比較晚提交
+    private void refreshGaps(long now) {
+        gaps.values().removeIf(deadline -> deadline < now);
+        if (gaps.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(gaps.keySet());
+        for (RevokedToken entry : shardRouter.readOnShard(0, () -> revokedTokenRepository.findByIdIn(ids))) {
+            gaps.remove(entry.getId());
+            addUnlessExpired(entry, now);
+        }
+    }
+
+    private void addUnlessExpired(RevokedToken entry, long now) {
+        if (toMillis(entry.getExpiresAt()) > now) {
+            add(entry);
+        }
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            revokedTokens.values().removeIf(expiresAtMs -> expiresAtMs < now);
+            userCutoffs.values().removeIf(cutoff -> cutoff.expiresAtMs() < now);
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, size() * 2), FALSE_POSITIVE_RATE);
+            revokedTokens.keySet().forEach(tokenId -> rebuilt.put(TOKEN_KEY + tokenId));
+            userCutoffs.keySet().forEach(username -> rebuilt.put(USER_KEY + username));
+            filter = rebuilt;
+        }
+        try {
+            shardRouter.onShard(0, () -> revokedTokenRepository.deleteExpired(LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.error("Failed to purge expired revoked tokens", e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
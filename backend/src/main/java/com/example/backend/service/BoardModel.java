@@ -0,0 +1,187 @@
+package com.example.backend.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 單一團隊看板在記憶體中的模型：依狀態分欄，每欄以平行陣列保存任務 id、排序 key 與序列化好的 JSON，
+ * 依 (rank, id) 排序，與 findByTeamOrderByStatusAscRankAscIdAsc 的順序相同。
+ * 讀取只需把各欄的 JSON 串接起來；寫入只更新單一任務。
+ */
+final class BoardModel {
+
+    // 每個任務除了 JSON 以外的大約記憶體用量（陣列欄位、索引表項目）
+    static final int ENTRY_OVERHEAD = 64;
+
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private static final class Column {
+        long[] ids = new long[8];
+        String[] ranks = new String[8];
+        byte[][] json = new byte[8][];
+        int size;
+
+        int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // 二分搜尋插入位置：排序 key 為 null 的排最前面，相同 key 依 id
+        int insertionPoint(String rank, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = NULLS_FIRST.compare(ranks[mid], rank);
+                if (cmp == 0) {
+                    cmp = Long.compare(ids[mid], id);
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void insert(int index, long id, String rank, byte[] payload) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ranks = Arrays.copyOf(ranks, capacity);
+                json = Arrays.copyOf(json, capacity);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(ranks, index, ranks, index + 1, size - index);
+            System.arraycopy(json, index, json, index + 1, size - index);
+            ids[index] = id;
+            ranks[index] = rank;
+            json[index] = payload;
+            size++;
+        }
+
+        byte[] removeAt(int index) {
+            byte[] removed = json[index];
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(ranks, index + 1, ranks, index, size - index - 1);
+            System.arraycopy(json, index + 1, json, index, size - index - 1);
+            size--;
+            ranks[size] = null;
+            json[size] = null;
+            return removed;
+        }
+    }
+
+    private final Set<String> memberUsernames;
+    private final TreeMap<String, Column> columns = new TreeMap<>(NULLS_FIRST);
+    private final Map<Long, String> statusById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long bytes;
+
+    BoardModel(Set<String> memberUsernames) {
+        this.memberUsernames = memberUsernames;
+    }
+
+    boolean isMember(String username) {
+        return memberUsernames.contains(username);
+    }
+
+    /**
+     * 新增或更新任務，回傳記憶體用量的變化（bytes）。
+     */
+    long upsert(long id, String status, String rank, byte[] payload) {
+        lock.writeLock().lock();
+        try {
+            long before = bytes;
+            removeLocked(id);
+            Column column = columns.computeIfAbsent(status, s -> new Column());
+            column.insert(column.insertionPoint(rank, id), id, rank, payload);
+            statusById.put(id, status);
+            bytes += payload.length + ENTRY_OVERHEAD;
+            return bytes - before;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long remove(long id) {
+        lock.writeLock().lock();
+        try {
+            long before = bytes;
+            removeLocked(id);
+            return bytes - before;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        if (!statusById.containsKey(id)) {
+            return;
+        }
+        String status = statusById.remove(id);
+        Column column = columns.get(status);
+        byte[] removed = column.removeAt(column.indexOf(id));
+        bytes -= removed.length + ENTRY_OVERHEAD;
+        if (column.size == 0) {
+            columns.remove(status);
+        }
+    }
+
+    // 依狀態、排序 key 串成 JSON 陣列
+    byte[] render() {
+        lock.readLock().lock();
+        try {
+            int length = 2;
+            for (Column column : columns.values()) {
+                for (int i = 0; i < column.size; i++) {
+                    length += column.json[i].length + 1;
+                }
+            }
+            byte[] out = new byte[statusById.isEmpty() ? 2 : length - 1];
+            int position = 0;
+            out[position++] = '[';
+            for (Column column : columns.values()) {
+                for (int i = 0; i < column.size; i++) {
+                    if (position > 1) {
+                        out[position++] = ',';
+                    }
+                    System.arraycopy(column.json[i], 0, out, position, column.json[i].length);
+                    position += column.json[i].length;
+                }
+            }
+            out[position] = ']';
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long bytes() {
+        lock.readLock().lock();
+        try {
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int taskCount() {
+        lock.readLock().lock();
+        try {
+            return statusById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.backend.service;
+
+import java.time.LocalDateTime;
+
+public record DueReminder(Long taskId, LocalDateTime dueDate) {
+}
@@ -0,0 +1,117 @@
+package com.example.backend.service;
+
+import java.math.BigInteger;
+
+/**
+ * 以字典序比較的分數索引（fractional indexing），使用 base-36 字元。
+ * 任兩個 key 之間永遠能產生新的 key，因此移動卡片只需要改寫被移動的那一列。
+ * key 不會以 '0' 結尾，確保任何 key 之前都還有空間。
+ * 只使用數字與小寫字母：MySQL 預設的 utf8mb4_0900_ai_ci 不分大小寫，
+ * 混用大小寫時 ORDER BY rank_key 與 Java 的 String.compareTo 順序會不一致。
+ */
+public final class FractionalIndex {
+
+    static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private FractionalIndex() {
+    }
+
+    /**
+     * 產生介於 before 與 after 之間的 key；before 為 null 表示最前面，after 為 null 表示最後面。
+     */
+    public static String between(String before, String after) {
+        String a = before == null ? "" : before;
+        if (after != null && a.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("before must sort before after: " + before + " >= " + after);
+        }
+        return midpoint(a, after);
+    }
+
+    /**
+     * 產生排在 key 之後的 key，用於新增到欄位最後：把 key 視為固定長度的 base-36 數字加上 step（1 到 35），
+     * 連續新增時長度維持不變；目前長度用完時長度加倍，因此長度只隨新增次數呈對數成長。
+     * 不使用 between(key, null)：取往最後的中點每幾次就會多一位。
+     */
+    public static String after(String key, int step) {
+        if (key == null) {
+            return between(null, null);
+        }
+        BigInteger radix = BigInteger.valueOf(BASE);
+        BigInteger value = new BigInteger(key, BASE);
+        int width = key.length();
+        BigInteger next = value.add(BigInteger.valueOf(step));
+        if (next.compareTo(radix.pow(width)) >= 0) {
+            // 補上 width 個 0 不改變順序，後半段從 0 開始遞增
+            next = value.multiply(radix.pow(width)).add(BigInteger.valueOf(step));
+            width *= 2;
+        }
+        if (next.mod(radix).signum() == 0) {
+            next = next.add(BigInteger.ONE);
+        }
+        String digits = next.toString(BASE);
+        return "0".repeat(width - digits.length()) + digits;
+    }
+
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // 共同前綴保持不變，只在第一個不同的位置之後找中點
+            int n = 0;
+            while (n < b.length() && charAt(a, n) == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(a.length() > n ? a.substring(n) : "", b.substring(n));
+            }
+        }
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        // 第一位相鄰：取 b 的第一位（若 b 更長），否則沿用 a 的第一位並往下一位找
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.length() > 1 ? a.substring(1) : "", null);
+    }
+
+    /**
+     * 產生 count 個等距、等長的 key，用於重新平衡過長的 key。
+     */
+    public static String[] evenlySpaced(int count) {
+        int width = 1;
+        long span = BASE;
+        while (span <= count) {
+            span *= BASE;
+            width++;
+        }
+        long step = span / (count + 1);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = stripTrailingZeros(toDigits((i + 1) * step, width));
+        }
+        return keys;
+    }
+
+    private static String toDigits(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        return new String(chars);
+    }
+
+    private static String stripTrailingZeros(String key) {
+        int end = key.length();
+        while (end > 1 && key.charAt(end - 1) == '0') {
+            end--;
+        }
+        return key.substring(0, end);
+    }
+
+    private static char charAt(String s, int i) {
+        return i < s.length() ? s.charAt(i) : '0';
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.IdempotencyRecord;
+import com.example.backend.repository.IdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最近使用過的 Idempotency-Key 與其回應。
+ * 記憶體中保留有上限的 LRU；啟用 idempotency.persistent 時另外寫入 idempotency_keys 資料表，
+ * 讓重新啟動後的重試也能取得原本的回應。
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    // 同一個 key 的第一個請求負責執行，其他並行的重複請求等待同一個 future
+    public record Entry(String fingerprint, CompletableFuture<StoredResponse> response, long createdAtMs) {
+    }
+
+    // owner 為 true 表示呼叫端是第一個請求，需負責 complete 或 abandon
+    public record Claim(Entry entry, boolean owner) {
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${idempotency.persistent:false}")
+    private boolean persistent;
+
+    @Value("${idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    private final int maxEntries;
+    // 依存取順序排列，最久沒用到的在最前面
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private ScheduledExecutorService purger;
+
+    public IdempotencyStore(@Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @PostConstruct
+    void start() {
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "idempotency-purger");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, 1, 1, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    void stop() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * 取得既有的紀錄；若不存在則登記一個新的執行中紀錄。
+     */
+    public Claim claim(String keyHash, String fingerprint) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry existing = entries.get(keyHash);
+            if (existing != null && now - existing.createdAtMs() < ttlMs) {
+                return new Claim(existing, false);
+            }
+        }
+
+        Entry stored = persistent ? loadPersisted(keyHash, now) : null;
+
+        synchronized (entries) {
+            Entry existing = entries.get(keyHash);
+            if (existing != null && now - existing.createdAtMs() < ttlMs) {
+                return new Claim(existing, false);
+            }
+            if (stored != null) {
+                entries.put(keyHash, stored);
+                evictCompleted();
+                return new Claim(stored, false);
+            }
+            Entry created = new Entry(fingerprint, new CompletableFuture<>(), now);
+            entries.put(keyHash, created);
+            evictCompleted();
+            return new Claim(created, true);
+        }
+    }
+
+    // 超過上限時從最久沒用到的開始淘汰已完成的紀錄。執行中的紀錄不能淘汰，
+    // 否則並行的重複請求會成為新的 owner 而再執行一次；全部都在執行中時暫時超過上限。需持有 entries 的鎖
+    private void evictCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().response().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public void complete(String keyHash, Entry entry, StoredResponse response) {
+        entry.response().complete(response);
+        if (persistent) {
+            try {
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setKeyHash(keyHash);
+                record.setFingerprint(entry.fingerprint());
+                record.setStatus(response.status());
+                record.setContentType(response.contentType());
+                record.setBody(new String(response.body(), StandardCharsets.UTF_8));
+                record.setCreatedAt(LocalDateTime.now());
+                idempotencyRecordRepository.save(record);
+            } catch (RuntimeException e) {
+                log.warn("Failed to persist idempotency key", e);
+            }
+        }
+    }
+
+    // 執行失敗（5xx 或例外）時不保留紀錄，讓之後的重試可以重新執行；等待中的請求收到同一個結果
+    public void abandon(String keyHash, Entry entry, StoredResponse response) {
+        synchronized (entries) {
+            entries.remove(keyHash, entry);
+        }
+        entry.response().complete(response);
+    }
+
+    void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        synchronized (entries) {
+            entries.values().removeIf(e -> e.response().isDone() && e.createdAtMs() < cutoff);
+        }
+        if (persistent) {
+            try {
+                idempotencyRecordRepository.deleteOlderThan(LocalDateTime.now().minusNanos(ttlMs * 1_000_000));
+            } catch (RuntimeException e) {
+                log.warn("Failed to purge expired idempotency keys", e);
+            }
+        }
+    }
+
+    private Entry loadPersisted(String keyHash, long now) {
+        return idempotencyRecordRepository.findById(keyHash)
+                .filter(r -> r.getCreatedAt().isAfter(LocalDateTime.now().minusNanos(ttlMs * 1_000_000)))
+                .map(r -> new Entry(r.getFingerprint(), CompletableFuture.completedFuture(new StoredResponse(
+                        r.getStatus(), r.getContentType(), r.getBody().getBytes(StandardCharsets.UTF_8))), now))
+                .orElse(null);
+    }
+}
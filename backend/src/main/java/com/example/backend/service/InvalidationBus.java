@@ -0,0 +1,294 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.sharding.ShardRouter;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多個 instance 之間的快取失效通知。各 instance 的記憶體快取在本機異動時直接更新，
+ * 並透過 publish 發出事件；事件累積成批後寫入 shard 0 的 cache_invalidations（outbox），
+ * 每個 instance 以短間隔輪詢新的列，把其他 instance 的事件交給對應的 Listener。
+ * 投遞是 at-least-once：游標只在 listener 處理完後前進，listener 必須是冪等的（例如丟棄快取項目）。
+ * 較小的 id 可能比較大的 id 晚提交，讀到跳號時會在 cache.bus.gap-timeout-ms 內持續補查缺少的 id；
+ * 長時間無法輪詢（可能漏掉已被清除的事件）時則請每個 listener 清空整個快取。
+ * 事件在本機異動提交後才發布，instance 在發布前當機時，其他 instance 要等快取自然淘汰才會更新。
+ */
+@Component
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final String INSERT_SQL = "INSERT INTO cache_invalidations (cache_name, cache_key, origin, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String SELECT_AFTER_SQL = "SELECT id, cache_name, cache_key, origin FROM cache_invalidations "
+            + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_IDS_SQL = "SELECT id, cache_name, cache_key, origin FROM cache_invalidations "
+            + "WHERE id IN (%s) ORDER BY id";
+    // 同時追蹤的跳號上限，避免 id 大幅跳躍時佔用過多記憶體
+    private static final int MAX_GAPS = 1000;
+
+    public interface Listener {
+        // 收到其他 instance 的事件；需冪等，重複投遞時結果相同
+        void invalidate(String key);
+
+        // 可能漏掉事件時呼叫，清空整個快取
+        void invalidateAll();
+    }
+
+    private record Event(String cacheName, String key) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${cache.bus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.bus.publish-interval-ms:50}")
+    private long publishIntervalMs;
+
+    @Value("${cache.bus.poll-interval-ms:200}")
+    private long pollIntervalMs;
+
+    @Value("${cache.bus.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cache.bus.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    @Value("${cache.bus.retention-ms:600000}")
+    private long retentionMs;
+
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, Listener> listeners = new ConcurrentHashMap<>();
+    // 尚未寫入的事件；同一批中重複的事件只寫一次。以 pending 為鎖
+    private final Set<Event> pending = new LinkedHashSet<>();
+    // 以下只由輪詢執行緒存取
+    private long cursor;
+    private long lastPollMs;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>(); // 缺少的 id -> 放棄補查的時間
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public InvalidationBus(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cache.bus.events", published, AtomicLong::get)
+                .description("Cache invalidation events written to the outbox")
+                .tag("direction", "published")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.bus.events", received, AtomicLong::get)
+                .description("Cache invalidation events from other instances applied locally")
+                .tag("direction", "received")
+                .register(meterRegistry);
+        Gauge.builder("cache.bus.pending", this, InvalidationBus::pendingCount)
+                .description("Cache invalidation events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    // 啟動前就決定游標：之後其他 instance 的事件都要收到，之前的事件與本機（仍是空的）快取無關
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            Long max = shardRouter.readOnShard(0,
+                    () -> jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class));
+            cursor = max == null ? 0 : max;
+            lastPollMs = System.currentTimeMillis();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        executor = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "cache-bus");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::flush, publishIntervalMs, publishIntervalMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        long purgeIntervalMs = Math.max(1000, retentionMs / 2);
+        executor.scheduleWithFixedDelay(this::purge, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            // 關閉前送出還沒寫入的事件
+            flush();
+        }
+    }
+
+    /**
+     * 註冊某個快取的 listener，每個快取名稱一個。
+     */
+    public void subscribe(String cacheName, Listener listener) {
+        if (listeners.putIfAbsent(cacheName, listener) != null) {
+            throw new IllegalStateException("Cache already subscribed: " + cacheName);
+        }
+    }
+
+    /**
+     * 通知其他 instance 丟棄快取項目。應在本機交易提交後呼叫；事件會在下一批一起寫入。
+     */
+    public void publish(String cacheName, String key) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pending) {
+            pending.add(new Event(cacheName, key));
+        }
+    }
+
+    int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    void flush() {
+        List<Event> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = batch.stream()
+                .map(event -> new Object[] { event.cacheName(), event.key(), instanceId, now })
+                .toList();
+        try {
+            shardRouter.onShard(0, () -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            published.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            // 放回去等下一批重試，期間新增的相同事件會合併
+            synchronized (pending) {
+                pending.addAll(batch);
+            }
+            log.error("Failed to publish {} cache invalidation events", batch.size(), e);
+        }
+    }
+
+    void poll() {
+        try {
+            long now = System.currentTimeMillis();
+            // 太久沒有輪詢，中間的事件可能已被清除
+            if (now - lastPollMs > retentionMs / 2) {
+                log.warn("Cache invalidation bus fell behind, clearing all subscribed caches");
+                listeners.values().forEach(this::invalidateAll);
+            }
+            List<Map<String, Object>> rows;
+            do {
+                rows = shardRouter.readOnShard(0,
+                        () -> jdbcTemplate.queryForList(SELECT_AFTER_SQL, cursor, batchSize));
+                for (Map<String, Object> row : rows) {
+                    long id = ((Number) row.get("id")).longValue();
+                    for (long missing = cursor + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+                        gaps.put(missing, now + gapTimeoutMs);
+                    }
+                    deliver(row);
+                    cursor = id;
+                }
+            } while (rows.size() == batchSize);
+            pollGaps(now);
+            lastPollMs = now;
+        } catch (RuntimeException e) {
+            if (running) {
+                log.error("Failed to poll cache invalidation events", e);
+            }
+        }
+    }
+
+    // 補查之前跳過的 id：較早取得 id 的交易可能比較晚提交
+    private void pollGaps(long now) {
+        gaps.values().removeIf(deadline -> deadline < now);
+        if (gaps.isEmpty()) {
+            return;
+        }
+        Object[] ids = gaps.keySet().toArray();
+        String sql = String.format(SELECT_IDS_SQL, String.join(", ", Collections.nCopies(ids.length, "?")));
+        for (Map<String, Object> row : shardRouter.readOnShard(0, () -> jdbcTemplate.queryForList(sql, ids))) {
+            gaps.remove(((Number) row.get("id")).longValue());
+            deliver(row);
+        }
+    }
+
+    private void deliver(Map<String, Object> row) {
+        if (instanceId.equals(row.get("origin"))) {
+            return;
+        }
+        Listener listener = listeners.get((String) row.get("cache_name"));
+        if (listener == null) {
+            return;
+        }
+        received.incrementAndGet();
+        try {
+            listener.invalidate((String) row.get("cache_key"));
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply cache invalidation {}, clearing the cache", row, e);
+            invalidateAll(listener);
+        }
+    }
+
+    private void invalidateAll(Listener listener) {
+        try {
+            listener.invalidateAll();
+        } catch (RuntimeException e) {
+            log.error("Failed to clear cache", e);
+        }
+    }
+
+    private void purge() {
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusNanos(
+                    TimeUnit.MILLISECONDS.toNanos(retentionMs)));
+            shardRouter.onShard(0, () -> jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                    cutoff));
+        } catch (RuntimeException e) {
+            if (running) {
+                log.error("Failed to purge cache invalidation events", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Job;
+
+import java.util.function.IntConsumer;
+
+/**
+ * 提供給 {@link JobHandler} 的工作參數與進度回報。
+ */
+public final class JobContext {
+
+    private final Job job;
+    private final IntConsumer progressReporter;
+
+    JobContext(Job job, IntConsumer progressReporter) {
+        this.job = job;
+        this.progressReporter = progressReporter;
+    }
+
+    public Long getJobId() {
+        return job.getId();
+    }
+
+    public String getPayload() {
+        return job.getPayload();
+    }
+
+    // 第幾次執行（從 1 開始）
+    public int getAttempt() {
+        return job.getAttempts();
+    }
+
+    /**
+     * 回報進度（0 - 100），同時延長這次執行的租約；租約已被其他 worker 接手時拋出 JobQueue.LeaseLostException。
+     */
+    public void progress(int percent) {
+        progressReporter.accept(Math.max(0, Math.min(percent, 100)));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.backend.service;
+
+/**
+ * 背景工作的執行者，每種 type 一個 bean，由 {@link JobQueue} 取出工作後呼叫。
+ * 失敗時會依退避時間重試，worker 失聯時也會由其他 instance 重新執行，因此 run 必須可以重複執行。
+ */
+public interface JobHandler {
+    String type();
+
+    // 回傳值存為工作的 result；丟出例外則視為這次執行失敗，OperationDeniedException 則直接失敗、不再重試
+    String run(JobContext context) throws Exception;
+}
@@ -0,0 +1,400 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Job;
+import com.example.backend.repository.JobRepository;
+import com.example.backend.sharding.ShardRouter;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 持久化的背景工作佇列（jobs 資料表，位於分片 0）。
+ * 每個 instance 有 jobs.workers 個 worker 輪詢佇列；取出工作時以條件式 UPDATE 把狀態改成 RUNNING，
+ * 支援 SKIP LOCKED 的資料庫（MySQL 8、PostgreSQL）先以 SELECT ... FOR UPDATE SKIP LOCKED 鎖定候選列，
+ * 多個 instance 共用同一個佇列也不會重複取出。
+ * 執行中的工作以 locked_by + attempts 作為這次執行的識別，回報進度時一併延長租約；
+ * 逾時未回報的工作會重新排入佇列，失敗的工作依指數退避重試，超過次數後標為 FAILED。
+ */
+@Component
+public class JobQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(JobQueue.class);
+
+
+    private static final String CLAIM_SQL = "UPDATE jobs SET status = 'RUNNING', locked_by = ?, locked_at = ?, "
+            + "updated_at = ?, attempts = attempts + 1 WHERE id = ? AND status = 'QUEUED'";
+
+    private static final String OWNED = " WHERE id = ? AND status = 'RUNNING' AND locked_by = ? AND attempts = ?";
+
+    private static final String PROGRESS_SQL = "UPDATE jobs SET progress = ?, locked_at = ?, updated_at = ?" + OWNED;
+
+    private static final String SUCCEED_SQL = "UPDATE jobs SET status = 'SUCCEEDED', progress = 100, result = ?, "
+            + "error = NULL, locked_by = NULL, updated_at = ?" + OWNED;
+
+    private static final String FAIL_SQL = "UPDATE jobs SET status = 'FAILED', error = ?, locked_by = NULL, "
+            + "updated_at = ?" + OWNED;
+
+    private static final String RETRY_SQL = "UPDATE jobs SET status = 'QUEUED', error = ?, run_at = ?, "
+            + "locked_by = NULL, updated_at = ?" + OWNED;
+
+    private static final String EXPIRE_SQL = "UPDATE jobs SET status = 'FAILED', error = 'Worker stopped responding', "
+            + "locked_by = NULL, updated_at = ? WHERE status = 'RUNNING' AND locked_at < ? AND attempts >= max_attempts";
+
+    private static final String REQUEUE_SQL = "UPDATE jobs SET status = 'QUEUED', run_at = ?, locked_by = NULL, "
+            + "updated_at = ? WHERE status = 'RUNNING' AND locked_at < ?";
+
+    public enum ClaimStrategy {
+        AUTO, SKIP_LOCKED, CONDITIONAL_UPDATE
+    }
+
+    // 回報進度時發現工作已被其他 worker 接手（租約逾時後重新排入佇列）
+    public static class LeaseLostException extends RuntimeException {
+        public LeaseLostException(Long jobId) {
+            super("Lease lost for job " + jobId);
+        }
+    }
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // TaskArchiver 等 handler 本身也會排入工作，因此延後到第一次使用時才取得
+    @Autowired
+    private ObjectProvider<JobHandler> handlerBeans;
+
+    @Value("${jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jobs.workers:2}")
+    private int workers;
+
+    @Value("${jobs.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${jobs.backoff-ms:2000}")
+    private long backoffMs;
+
+    @Value("${jobs.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    // 執行中的工作超過這段時間沒有回報進度，就視為 worker 已失聯
+    @Value("${jobs.lease-timeout-ms:300000}")
+    private long leaseTimeoutMs;
+
+    // AUTO：依資料庫決定是否使用 SKIP LOCKED（H2 等不支援的資料庫只用條件式 UPDATE）
+    @Value("${jobs.claim-strategy:AUTO}")
+    private ClaimStrategy claimStrategy;
+
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private volatile Map<String, JobHandler> handlers;
+    private final Object signal = new Object();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+
+    private volatile boolean running;
+    private boolean skipLocked;
+    private String selectCandidates;
+    private ExecutorService workerPool;
+    private ScheduledExecutorService reaper;
+
+    public JobQueue(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("jobs.completed", succeeded, AtomicLong::get)
+                .description("Background jobs that finished successfully")
+                .tag("result", "succeeded")
+                .register(meterRegistry);
+        FunctionCounter.builder("jobs.completed", failed, AtomicLong::get)
+                .description("Background jobs that failed after their last attempt")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("jobs.retries", retried, AtomicLong::get)
+                .description("Failed background job attempts scheduled for a retry")
+                .register(meterRegistry);
+    }
+
+    // 等應用程式（含各分片的資料表）準備好後才開始取出工作
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        skipLocked = switch (claimStrategy) {
+            case SKIP_LOCKED -> true;
+            case CONDITIONAL_UPDATE -> false;
+            case AUTO -> supportsSkipLocked();
+        };
+        // 只取出這個 instance 有 handler 的工作；版本不同的 instance 共用佇列時不會搶走不認得的工作
+        String types = handlers().keySet().stream().map(type -> "'" + type.replace("'", "''") + "'")
+                .collect(Collectors.joining(", "));
+        selectCandidates = "SELECT id FROM jobs WHERE status = 'QUEUED' AND run_at <= ? AND type IN (" + types + ") "
+                + "ORDER BY run_at, id LIMIT ?" + (skipLocked ? " FOR UPDATE SKIP LOCKED" : "");
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "job-worker-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::runWorker);
+        }
+        reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-lease-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        long reapIntervalMs = Math.max(1000, leaseTimeoutMs / 2);
+        reaper.scheduleWithFixedDelay(this::requeueExpired, reapIntervalMs, reapIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * 新增一個工作；payload 以 JSON 儲存。
+     */
+    public Job enqueue(String type, Object payload, String username) {
+        return enqueue(type, null, payload, username);
+    }
+
+    private Job enqueue(String type, String dedupeKey, Object payload, String username) {
+        if (!handlers().containsKey(type)) {
+            throw new IllegalArgumentException("Unknown job type: " + type);
+        }
+        Job job = new Job();
+        job.setType(type);
+        job.setDedupeKey(dedupeKey);
+        try {
+            job.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Job payload is not serializable", e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(Job.Status.QUEUED);
+        job.setMaxAttempts(maxAttempts);
+        job.setRunAt(now);
+        job.setCreatedBy(username);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        Job saved = shardRouter.onShard(0, () -> jobRepository.save(job));
+        // 喚醒這個 instance 閒置中的 worker；其他 instance 在下一次輪詢時取出
+        synchronized (signal) {
+            signal.notify();
+        }
+        return saved;
+    }
+
+    /**
+     * 同類型的工作還在佇列中或執行中時不重複新增，回傳既有的工作；用於多個 instance 都會觸發的週期性工作。
+     */
+    public Job enqueueUnlessPending(String type, Object payload, String username) {
+        Optional<Job> pending = shardRouter.readOnShard(0,
+                () -> jobRepository.findFirstByTypeAndStatusIn(type, List.of(Job.Status.QUEUED, Job.Status.RUNNING)));
+        return pending.orElseGet(() -> enqueue(type, payload, username));
+    }
+
+    /**
+     * 同類型、同 dedupeKey 的工作還在佇列中或執行中時不重複新增，回傳既有的工作；用於針對同一個對象的操作（例如刪除某個團隊）。
+     */
+    public Job enqueueUnlessPending(String type, String dedupeKey, Object payload, String username) {
+        Optional<Job> pending = shardRouter.readOnShard(0, () -> jobRepository.findFirstByTypeAndDedupeKeyAndStatusIn(
+                type, dedupeKey, List.of(Job.Status.QUEUED, Job.Status.RUNNING)));
+        return pending.orElseGet(() -> enqueue(type, dedupeKey, payload, username));
+    }
+
+    public Optional<Job> find(Long id) {
+        return shardRouter.readOnShard(0, () -> jobRepository.findById(id));
+    }
+
+    private void runWorker() {
+        while (running) {
+            Job job;
+            try {
+                job = claimNext();
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Failed to claim a job", e);
+                job = null;
+            }
+            if (job != null) {
+                execute(job);
+                continue;
+            }
+            try {
+                synchronized (signal) {
+                    signal.wait(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private Job claimNext() {
+        return shardRouter.onShard(0, () -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            // SKIP LOCKED：其他 instance 鎖定中的列直接略過；否則多取幾筆候選，由條件式 UPDATE 決定誰取得
+            List<Long> candidates = jdbcTemplate.queryForList(selectCandidates, Long.class, now,
+                    skipLocked ? 1 : workers);
+            for (Long id : candidates) {
+                if (jdbcTemplate.update(CLAIM_SQL, instanceId, now, now, id) == 1) {
+                    return jobRepository.findById(id).orElseThrow();
+                }
+            }
+            return null;
+        });
+    }
+
+    private void execute(Job job) {
+        int attempt = job.getAttempts();
+        try {
+            JobHandler handler = handlers().get(job.getType());
+            if (handler == null) {
+                throw new IllegalStateException("No handler for job type " + job.getType());
+            }
+            String result = handler.run(new JobContext(job, percent -> reportProgress(job, attempt, percent)));
+            if (update(SUCCEED_SQL, job, attempt, result, now())) {
+                succeeded.incrementAndGet();
+            }
+        } catch (LeaseLostException e) {
+            log.warn("Job {} was taken over by another worker", job.getId());
+        } catch (OperationDeniedException e) {
+            // 違反規則（例如刪除時團隊又有未完成的任務），重試也不會成功
+            log.warn("Job {} ({}) was rejected: {}", job.getId(), job.getType(), e.getMessage());
+            if (update(FAIL_SQL, job, attempt, truncate(e.getMessage()), now())) {
+                failed.incrementAndGet();
+            }
+        } catch (Exception e) {
+            String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            if (attempt >= job.getMaxAttempts()) {
+                log.error("Job {} ({}) failed after {} attempts", job.getId(), job.getType(), attempt, e);
+                if (update(FAIL_SQL, job, attempt, error, now())) {
+                    failed.incrementAndGet();
+                }
+            } else {
+                long delayMs = backoffDelay(attempt);
+                log.warn("Job {} ({}) attempt {} failed, retrying in {} ms", job.getId(), job.getType(), attempt,
+                        delayMs, e);
+                LocalDateTime runAt = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMs));
+                if (update(RETRY_SQL, job, attempt, error, Timestamp.valueOf(runAt), now())) {
+                    retried.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void reportProgress(Job job, int attempt, int percent) {
+        Timestamp now = now();
+        if (!update(PROGRESS_SQL, job, attempt, percent, now, now)) {
+            throw new LeaseLostException(job.getId());
+        }
+    }
+
+    // 只在這次執行仍持有工作時更新（locked_by 與 attempts 都相符）
+    private boolean update(String sql, Job job, int attempt, Object... values) {
+        Object[] args = new Object[values.length + 3];
+        System.arraycopy(values, 0, args, 0, values.length);
+        args[values.length] = job.getId();
+        args[values.length + 1] = instanceId;
+        args[values.length + 2] = attempt;
+        return shardRouter.onShard(0, () -> jdbcTemplate.update(sql, args)) == 1;
+    }
+
+    // 第 n 次失敗後等待 backoff * 2^(n-1)，加上最多 20% 的隨機延遲，避免同時失敗的工作一起重試
+    long backoffDelay(int attempt) {
+        long delay = backoffMs << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, maxBackoffMs);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    // 租約逾時（worker 當機或與資料庫斷線）的工作重新排入佇列；已用完次數的標為 FAILED
+    void requeueExpired() {
+        try {
+            Timestamp now = now();
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now()
+                    .minusNanos(TimeUnit.MILLISECONDS.toNanos(leaseTimeoutMs)));
+            int expired = shardRouter.onShard(0, () -> jdbcTemplate.update(EXPIRE_SQL, now, cutoff)
+                    + jdbcTemplate.update(REQUEUE_SQL, now, now, cutoff));
+            if (expired > 0) {
+                log.warn("Recovered {} jobs whose worker stopped responding", expired);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to recover expired jobs", e);
+        }
+    }
+
+    private Map<String, JobHandler> handlers() {
+        if (handlers == null) {
+            Map<String, JobHandler> byType = new HashMap<>();
+            handlerBeans.orderedStream().forEach(handler -> byType.put(handler.type(), handler));
+            handlers = byType;
+        }
+        return handlers;
+    }
+
+    private boolean supportsSkipLocked() {
+        String product = shardRouter.readOnShard(0, () -> jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        return product != null && (product.startsWith("MySQL") || product.startsWith("PostgreSQL"));
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
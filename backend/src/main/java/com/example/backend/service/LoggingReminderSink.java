@@ -0,0 +1,16 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoggingReminderSink implements ReminderSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingReminderSink.class);
+
+    @Override
+    public void remind(DueReminder reminder) {
+        log.info("Task {} is due at {}", reminder.taskId(), reminder.dueDate());
+    }
+}
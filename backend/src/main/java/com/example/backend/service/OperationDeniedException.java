@@ -0,0 +1,19 @@
+package com.example.backend.service;
+
+/**
+ * 服務層拒絕操作（權限不足、違反規則）時拋出，由 controller 轉成對應的 HTTP 狀態碼。
+ * 在交易中拋出時整個操作都會回滾。
+ */
+public class OperationDeniedException extends RuntimeException {
+
+    private final int status;
+
+    public OperationDeniedException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Task;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.sharding.ShardRouter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任務截止提醒。
+ * 只把 [已載入, now + horizon) 之間的截止時間從 due_date 索引載入時間輪，之後定期往前滑動，
+ * 避免每分鐘掃描整張 tasks 表；任務寫入路徑透過 onTaskSaved / onTaskDeleted 維持同步。
+ */
+@Component
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private List<ReminderSink> sinks;
+
+    @Value("${reminder.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reminder.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${reminder.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${reminder.horizon-ms:86400000}")
+    private long horizonMs;
+
+    @Value("${reminder.refresh-ms:3600000}")
+    private long refreshMs;
+
+    private final Object lock = new Object();
+    private final Map<Long, TimingWheel.Entry<DueReminder>> entries = new HashMap<>();
+    private volatile TimingWheel<DueReminder> wheel;
+    // 已從資料庫載入到哪個時間點（不含）
+    private long loadedUntil;
+    // 載入中的目標時間點與期間被寫入路徑更新過的任務，避免覆蓋較新的資料
+    private long loadingUntil;
+    private Set<Long> touchedWhileLoading;
+
+    private ScheduledExecutorService executor;
+
+    // 等應用程式（含各分片的資料表）準備好後才開始載入
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        wheel = new TimingWheel<>(tickMs, wheelSize, now);
+        loadedUntil = now;
+        executor = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "reminder-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::refreshHorizon, 0, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // 任務新增或更新後呼叫：取消舊的提醒並依新的截止時間重新排程
+    public void onTaskSaved(Task task) {
+        if (wheel == null || task.getId() == null) {
+            return;
+        }
+        synchronized (lock) {
+            cancelLocked(task.getId());
+            if (touchedWhileLoading != null) {
+                touchedWhileLoading.add(task.getId());
+            }
+            if (task.getDueDate() == null || "done".equals(task.getStatus())) {
+                return;
+            }
+            long dueMs = toMillis(task.getDueDate());
+            long cutoff = touchedWhileLoading != null ? loadingUntil : loadedUntil;
+            if (dueMs < cutoff) {
+                scheduleLocked(task.getId(), task.getDueDate(), dueMs);
+            }
+        }
+    }
+
+    public void onTaskDeleted(Long taskId) {
+        if (wheel == null || taskId == null) {
+            return;
+        }
+        synchronized (lock) {
+            cancelLocked(taskId);
+            if (touchedWhileLoading != null) {
+                touchedWhileLoading.add(taskId);
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    void refreshHorizon() {
+        try {
+            long from;
+            long to = System.currentTimeMillis() + horizonMs;
+            synchronized (lock) {
+                from = loadedUntil;
+                if (to <= from) {
+                    return;
+                }
+                loadingUntil = to;
+                touchedWhileLoading = new HashSet<>();
+            }
+
+            List<TaskRepository.DueDateView> upcoming = shardRouter.gather(() -> taskRepository.findDueDatesBetween(
+                    toLocalDateTime(from), toLocalDateTime(to)), null);
+
+            synchronized (lock) {
+                for (TaskRepository.DueDateView view : upcoming) {
+                    if (!touchedWhileLoading.contains(view.getId()) && !entries.containsKey(view.getId())) {
+                        scheduleLocked(view.getId(), view.getDueDate(), toMillis(view.getDueDate()));
+                    }
+                }
+                loadedUntil = to;
+                touchedWhileLoading = null;
+            }
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                touchedWhileLoading = null;
+            }
+            log.error("Failed to load upcoming due dates", e);
+        }
+    }
+
+    void tick() {
+        List<DueReminder> due = new ArrayList<>();
+        synchronized (lock) {
+            wheel.advanceClock(System.currentTimeMillis(), e -> {
+                entries.remove(e.getValue().taskId());
+                due.add(e.getValue());
+            });
+        }
+        // 在鎖外呼叫 sink，避免慢速輸出端阻塞寫入路徑
+        for (DueReminder reminder : due) {
+            for (ReminderSink sink : sinks) {
+                try {
+                    sink.remind(reminder);
+                } catch (RuntimeException e) {
+                    log.error("Reminder sink {} failed for task {}", sink.getClass().getSimpleName(),
+                            reminder.taskId(), e);
+                }
+            }
+        }
+    }
+
+    private void scheduleLocked(Long taskId, LocalDateTime dueDate, long dueMs) {
+        TimingWheel.Entry<DueReminder> entry = wheel.schedule(new DueReminder(taskId, dueDate), dueMs);
+        // 已過期的截止時間不補發提醒
+        if (entry != null) {
+            entries.put(taskId, entry);
+        }
+    }
+
+    private void cancelLocked(Long taskId) {
+        wheel.cancel(entries.remove(taskId));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.backend.service;
+
+/**
+ * 到期提醒的輸出端。可實作 email、推播等；預設只有寫入 log 的 {@link LoggingReminderSink}。
+ */
+public interface ReminderSink {
+    void remind(DueReminder reminder);
+}
@@ -0,0 +1,198 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.TaskActivity;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 任務操作紀錄（write-behind）。
+ * 請求執行緒只把事件放進有界緩衝區，由背景執行緒批次寫入 task_activity 資料表，
+ * 避免在每次 updateTask 時多一次同步 INSERT。
+ */
+@Component
+public class TaskActivityLog {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskActivityLog.class);
+
+    private static final String INSERT_SQL = "INSERT INTO task_activity "
+            + "(task_id, team_id, actor, action, from_status, to_status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${activity.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${activity.batch-size:200}")
+    private int batchSize;
+
+    @Value("${activity.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    // 緩衝區滿時：DROP 丟棄事件，BLOCK 讓請求執行緒等待（最多 block-timeout-ms）
+    @Value("${activity.overflow:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${activity.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    // 關閉時是否寫入緩衝區中剩餘的事件
+    @Value("${activity.flush-on-shutdown:true}")
+    private boolean flushOnShutdown;
+
+    private BlockingQueue<TaskActivity> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    // 背景寫入與 flush() 互斥，確保寫入順序與事件順序一致
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        running = true;
+        writer = new Thread(this::runWriter, "task-activity-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(flushIntervalMs * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flushOnShutdown) {
+            flush();
+        } else if (!buffer.isEmpty()) {
+            log.warn("Discarding {} task activity events on shutdown", buffer.size());
+        }
+    }
+
+    public void recordCreate(Task task, String actor) {
+        record(task, TaskActivity.Action.CREATE, actor, null, task.getStatus());
+    }
+
+    public void recordUpdate(Task task, String actor, String fromStatus) {
+        record(task, TaskActivity.Action.UPDATE, actor, fromStatus, task.getStatus());
+    }
+
+    public void recordDelete(Task task, String actor) {
+        record(task, TaskActivity.Action.DELETE, actor, task.getStatus(), null);
+    }
+
+    private void record(Task task, TaskActivity.Action action, String actor, String fromStatus, String toStatus) {
+        TaskActivity activity = new TaskActivity();
+        activity.setTaskId(task.getId());
+        activity.setTeamId(task.getTeam() != null ? task.getTeam().getId() : null);
+        activity.setActor(actor);
+        activity.setAction(action);
+        activity.setFromStatus(fromStatus);
+        activity.setToStatus(toStatus);
+        activity.setCreatedAt(LocalDateTime.now());
+        enqueue(activity);
+    }
+
+    private void enqueue(TaskActivity activity) {
+        boolean accepted;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = buffer.offer(activity, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = buffer.offer(activity);
+        }
+        if (!accepted) {
+            dropped.incrementAndGet();
+        } else if (buffer.size() >= batchSize) {
+            // 已累積一整批，提早喚醒背景執行緒
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            if (Thread.interrupted()) {
+                // stop() 會負責寫入剩餘事件
+                break;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Failed to write task activity events", e);
+            }
+        }
+    }
+
+    private void writeBatch(List<TaskActivity> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, a) -> {
+            ps.setLong(1, a.getTaskId());
+            ps.setObject(2, a.getTeamId());
+            ps.setString(3, a.getActor());
+            ps.setString(4, a.getAction().name());
+            ps.setString(5, a.getFromStatus());
+            ps.setString(6, a.getToStatus());
+            ps.setTimestamp(7, Timestamp.valueOf(a.getCreatedAt()));
+        });
+        written.addAndGet(batch.size());
+    }
+
+    // 立即寫入緩衝區中的所有事件（背景執行緒、關閉流程與測試共用）
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<TaskActivity> batch = new ArrayList<>(batchSize);
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.sharding.ShardDirectory;
+import com.example.backend.sharding.ShardRouter;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已完成任務的冷熱分離：完成超過 archive.after-days 的任務分批從 tasks 移到 tasks_archive，
+ * 讓看板與列表查詢只需要掃描仍在使用中的任務。
+ * 每個 instance 定期排入一個 tasks.archive 背景工作（已有未完成的同類工作時不重複排入），
+ * 每批在同一個交易中 INSERT ... SELECT 到 tasks_archive 再從 tasks 刪除，重複執行也不會重複歸檔。
+ */
+@Component
+public class TaskArchiver implements JobHandler {
+
+    public static final String TYPE = "tasks.archive";
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private static final String COLUMNS = "id, title, description, status, assignee, user_id, team_id, assigned_to, "
+            + "due_date, rank_key, completed_at";
+    // 可以歸檔的任務：在 cutoff 之前完成且仍為 done
+    private static final String ARCHIVABLE = "status = 'done' AND completed_at < ?";
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TeamBoardReader teamBoardReader;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${archive.interval-ms:3600000}")
+    private long intervalMs;
+
+    private ScheduledExecutorService trigger;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        trigger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-archive-trigger");
+            t.setDaemon(true);
+            return t;
+        });
+        trigger.scheduleWithFixedDelay(this::schedule, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (trigger != null) {
+            trigger.shutdownNow();
+        }
+    }
+
+    private void schedule() {
+        try {
+            jobQueue.enqueueUnlessPending(TYPE, Map.of("afterDays", afterDays), null);
+        } catch (RuntimeException e) {
+            log.error("Failed to schedule task archival", e);
+        }
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public String run(JobContext context) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp cutoff = Timestamp.valueOf(now.minusDays(afterDays));
+        int shardCount = shardDirectory.getShardCount();
+        long archived = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            // 加入 completed_at 之前就已完成的任務，從現在開始計算
+            shardRouter.onShard(target, () -> jdbcTemplate.update(
+                    "UPDATE tasks SET completed_at = ? WHERE status = 'done' AND completed_at IS NULL",
+                    Timestamp.valueOf(now)));
+            Set<Long> teams = new HashSet<>();
+            while (true) {
+                List<Long> teamIds = shardRouter.onShard(target, () -> archiveBatch(cutoff, Timestamp.valueOf(now)));
+                if (teamIds.isEmpty()) {
+                    break;
+                }
+                archived += teamIds.size();
+                teamIds.stream().filter(Objects::nonNull).forEach(teams::add);
+            }
+            // 看板上的任務被移走，丟棄這些團隊的快取
+            teams.forEach(teamBoardReader::invalidate);
+            context.progress((target + 1) * 100 / shardCount);
+        }
+        return "Archived " + archived + " tasks completed before " + cutoff;
+    }
+
+    // 移動一批任務，回傳每個任務的 team id（個人任務為 null）。
+    // 選出的列以 FOR UPDATE 鎖定到交易結束，期間重新開啟的任務會等歸檔完成，不會以未完成的狀態被移走；
+    // INSERT 與 DELETE 也再套用一次相同條件
+    private List<Long> archiveBatch(Timestamp cutoff, Timestamp archivedAt) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT id, team_id FROM tasks "
+                + "WHERE " + ARCHIVABLE + " ORDER BY completed_at LIMIT ? FOR UPDATE", cutoff, batchSize);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Object[] ids = rows.stream().map(row -> row.get("id")).toArray();
+        String in = String.join(", ", Collections.nCopies(ids.length, "?"));
+        Object[] insertArgs = new Object[ids.length + 2];
+        insertArgs[0] = archivedAt;
+        System.arraycopy(ids, 0, insertArgs, 1, ids.length);
+        insertArgs[ids.length + 1] = cutoff;
+        jdbcTemplate.update("INSERT INTO tasks_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+                + ", ? FROM tasks WHERE id IN (" + in + ") AND " + ARCHIVABLE, insertArgs);
+        Object[] deleteArgs = Arrays.copyOf(ids, ids.length + 1);
+        deleteArgs[ids.length] = cutoff;
+        jdbcTemplate.update("DELETE FROM tasks WHERE id IN (" + in + ") AND " + ARCHIVABLE, deleteArgs);
+        return rows.stream().map(row -> row.get("team_id") == null ? null : ((Number) row.get("team_id")).longValue())
+                .toList();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Task;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.sharding.ShardDirectory;
+import com.example.backend.sharding.ShardRouter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 看板欄位內的卡片排序。
+ * 新卡片排在欄位最後，移動卡片時只計算相鄰兩張卡片之間的 key，只需要更新一列；
+ * 背景定期把 key 過長、重複（或尚未設定）的欄位重新平均分配。
+ */
+@Component
+public class TaskRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRanking.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TeamBoardReader teamBoardReader;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Value("${ranking.max-key-length:12}")
+    private int maxKeyLength;
+
+    @Value("${ranking.rebalance-interval-ms:600000}")
+    private long rebalanceIntervalMs;
+
+    private ScheduledExecutorService rebalancer;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-rank-rebalancer");
+            t.setDaemon(true);
+            return t;
+        });
+        rebalancer.scheduleWithFixedDelay(this::rebalanceAll, rebalanceIntervalMs, rebalanceIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebalancer != null) {
+            rebalancer.shutdownNow();
+        }
+    }
+
+    // 把任務排到目前欄位的最後（需在任務所在分片上呼叫）
+    public void appendToColumn(Task task) {
+        Optional<Task> last = task.getTeam() != null
+                ? taskRepository.findFirstByTeamAndStatusOrderByRankDesc(task.getTeam(), task.getStatus())
+                : taskRepository.findFirstByUserAndTeamIsNullAndStatusOrderByRankDesc(task.getUser(), task.getStatus());
+        String lastRank = last.filter(t -> !t.getId().equals(task.getId())).map(Task::getRank).orElse(null);
+        task.setRank(FractionalIndex.after(lastRank, randomStep()));
+    }
+
+    /**
+     * 把任務移到 after 與 before 之間（兩者皆可為 null，表示欄位最前或最後）。
+     * 相鄰兩張卡片的 key 相同時會先重新分配整個欄位，此時回傳 true，呼叫端需讓整個看板快取失效。
+     */
+    public boolean moveBetween(Task task, Task after, Task before) {
+        String afterRank = after != null ? after.getRank() : null;
+        String beforeRank = before != null ? before.getRank() : null;
+        if (after != null && afterRank == null) {
+            // 相鄰卡片尚未有排序 key（舊資料），先排到最後，等待重新平衡
+            appendToColumn(task);
+            return false;
+        }
+        boolean rebalanced = false;
+        if (afterRank != null && afterRank.equals(beforeRank)) {
+            // 兩者之間沒有空間；欄位直接在資料表中更新，after、before 的新 key 從分配結果取得
+            List<Long> ids = after.getTeam() != null
+                    ? taskRepository.findColumnIdsByTeam(after.getTeam().getId(), after.getStatus())
+                    : taskRepository.findPersonalColumnIds(after.getUser().getId(), after.getStatus());
+            String[] keys = assignEvenly(ids, after.getStatus());
+            afterRank = keys[ids.indexOf(after.getId())];
+            int beforeIndex = ids.indexOf(before.getId());
+            beforeRank = beforeIndex >= 0 ? keys[beforeIndex] : null;
+            rebalanced = true;
+        }
+        task.setRank(beforeRank == null
+                ? FractionalIndex.after(afterRank, randomStep())
+                : FractionalIndex.between(afterRank, beforeRank));
+        return rebalanced;
+    }
+
+    // 並行新增的任務可能讀到同一個最後的 key，隨機的間隔讓它們通常得到不同的 key；
+    // 仍然重複時由 moveBetween 或背景重新平衡修正
+    private static int randomStep() {
+        return 1 + ThreadLocalRandom.current().nextInt(FractionalIndex.DIGITS.length() - 1);
+    }
+
+    public void rebalanceAll() {
+        for (int shard = 0; shard < shardDirectory.getShardCount(); shard++) {
+            int target = shard;
+            try {
+                List<Object[]> teamColumns = shardRouter.readOnShard(target,
+                        () -> taskRepository.findTeamColumnsNeedingRebalance(maxKeyLength));
+                for (Object[] column : teamColumns) {
+                    String status = (String) column[1];
+                    shardRouter.onShard(target, () -> assignEvenly(
+                            taskRepository.findColumnIdsByTeam((Long) column[0], status), status));
+                    teamBoardReader.invalidate((Long) column[0]);
+                }
+                List<Object[]> personalColumns = shardRouter.readOnShard(target,
+                        () -> taskRepository.findPersonalColumnsNeedingRebalance(maxKeyLength));
+                for (Object[] column : personalColumns) {
+                    String status = (String) column[1];
+                    shardRouter.onShard(target, () -> assignEvenly(
+                            taskRepository.findPersonalColumnIds((Long) column[0], status), status));
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to rebalance task ranks on shard {}", target, e);
+            }
+        }
+    }
+
+    // 依目前順序重新分配欄位的 key，回傳與 ids 對應的 key。只更新 rank 一欄，
+    // 不載入整個任務再寫回，避免覆寫使用者同時提交的修改；期間已移到其他欄位的任務不更新
+    private String[] assignEvenly(List<Long> ids, String status) {
+        String[] keys = FractionalIndex.evenlySpaced(ids.size());
+        for (int i = 0; i < keys.length; i++) {
+            taskRepository.updateRank(ids.get(i), status, keys[i]);
+        }
+        return keys;
+    }
+}
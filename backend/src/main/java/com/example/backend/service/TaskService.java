@@ -0,0 +1,503 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.dto.TaskFilter;
+import com.example.backend.model.ArchivedTask;
+import com.example.backend.model.Task;
+import com.example.backend.model.TaskActivity;
+import com.example.backend.model.Team;
+import com.example.backend.model.User;
+import com.example.backend.repository.ArchivedTaskRepository;
+import com.example.backend.repository.TaskActivityRepository;
+import com.example.backend.repository.TaskField;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TaskSpecifications;
+import com.example.backend.repository.TeamMemberRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.sharding.ShardDirectory;
+import com.example.backend.sharding.ShardRouter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 任務的交易邊界。
+ * 每個寫入操作是一個交易；查詢在唯讀交易中執行（FlushMode.MANUAL、不做 dirty checking）。
+ * 使用者資料在每個分片都有副本，因此目前使用者在同一交易內查詢，不另外取得連線。
+ */
+@Service
+public class TaskService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskService.class);
+
+    // 分配給我的任務：截止時間早的在前，沒有截止時間的排在最後
+    private static final Comparator<Task> ASSIGNED_ORDER = Comparator
+            .comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Task::getId);
+
+    // 看板與個人任務列表的順序：依狀態分欄，欄內依排序 key
+    static final Sort BOARD_ORDER = Sort.by("status", "rank", "id");
+
+    /**
+     * 分配給我的任務的一頁；nextCursor 為 null 表示已到最後。
+     */
+    public record AssignedPage(List<Task> items, String nextCursor) {
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private TaskActivityRepository taskActivityRepository;
+
+    @Autowired
+    private TaskActivityLog taskActivityLog;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private TaskRanking taskRanking;
+
+    @Autowired
+    private TeamBoardReader teamBoardReader;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    // 用戶建立的所有任務（包括個人和團隊任務）；includeArchived 時合併已歸檔的任務
+    public List<Task> getCreatedTasks(String username, boolean includeArchived) {
+        return shardRouter.gather(() -> {
+            User user = findUser(username);
+            List<Task> tasks = ShardRouter.initializeTasks(taskRepository.findByUser(user));
+            return includeArchived ? withArchived(tasks, archivedTaskRepository.findByUserOrderByIdAsc(user)) : tasks;
+        }, Comparator.comparing(Task::getId));
+    }
+
+    // 用戶可見的所有任務（個人 + 參與團隊的任務）
+    public List<Task> getAccessibleTasks(String username, boolean includeArchived) {
+        return shardRouter.gather(() -> {
+            User user = findUser(username);
+            List<Task> tasks = ShardRouter.initializeTasks(taskRepository.findTasksByUserIncludingTeams(user));
+            return includeArchived ? withArchived(tasks, archivedTaskRepository.findByUserIncludingTeams(user)) : tasks;
+        }, Comparator.comparing(Task::getId));
+    }
+
+    // 只取得個人任務（只在 home shard）；已歸檔的任務排在最後
+    public List<Task> getPersonalTasks(String username, boolean includeArchived) {
+        User user = shardRouter.readOnShard(0, () -> findUser(username));
+        return shardRouter.readOnShard(shardDirectory.homeShard(user), () -> {
+            List<Task> tasks = ShardRouter.initializeTasks(
+                    taskRepository.findByUserAndTeamIsNullOrderByStatusAscRankAscIdAsc(user));
+            return includeArchived
+                    ? withArchived(tasks, archivedTaskRepository.findByUserAndTeamIsNullOrderByIdAsc(user))
+                    : tasks;
+        });
+    }
+
+    // 列表的範圍，對應 getCreatedTasks / getAccessibleTasks / getPersonalTasks
+    public enum ListScope {
+        CREATED, ACCESSIBLE, PERSONAL
+    }
+
+    /**
+     * 與列表 API 相同的範圍與順序，但只 SELECT 並輸出 fields 指定的欄位。
+     */
+    public List<Map<String, Object>> getTaskFields(String username, ListScope scope, List<TaskField> fields,
+            boolean includeArchived) {
+        if (scope == ListScope.PERSONAL) {
+            User user = shardRouter.readOnShard(0, () -> findUser(username));
+            return shardRouter.readOnShard(shardDirectory.homeShard(user), () -> withArchivedFields(
+                    taskRepository.findFields(Task.class, TaskSpecifications.personalOf(user), BOARD_ORDER, fields),
+                    includeArchived, TaskSpecifications.personalOf(user), fields));
+        }
+        return shardRouter.gather(() -> {
+            User user = findUser(username);
+            // 與其他查詢相同，不以 OR 合併：各自走 user_id / team_id 開頭的索引，再以 id 去除重複
+            Map<Object, Map<String, Object>> rows = new LinkedHashMap<>();
+            taskRepository.findFields(Task.class, TaskSpecifications.createdBy(user), Sort.by("id"), fields)
+                    .forEach(row -> rows.put(row.get("id"), row));
+            if (includeArchived) {
+                taskRepository.findFields(ArchivedTask.class, TaskSpecifications.createdBy(user), Sort.by("id"), fields)
+                        .forEach(row -> rows.put(row.get("id"), archivedRow(row)));
+            }
+            List<Long> teamIds = scope == ListScope.ACCESSIBLE ? teamMemberRepository.findTeamIdsByUser(user) : List.of();
+            if (!teamIds.isEmpty()) {
+                taskRepository.findFields(Task.class, TaskSpecifications.inTeams(teamIds), Sort.by("id"), fields)
+                        .forEach(row -> rows.putIfAbsent(row.get("id"), row));
+                if (includeArchived) {
+                    taskRepository.findFields(ArchivedTask.class, TaskSpecifications.inTeams(teamIds), Sort.by("id"),
+                            fields).forEach(row -> rows.putIfAbsent(row.get("id"), archivedRow(row)));
+                }
+            }
+            return new ArrayList<>(rows.values());
+        }, Comparator.comparing(row -> (Long) row.get("id")));
+    }
+
+    // 需在交易內呼叫：在 hot 的結果之後接上已歸檔的任務
+    List<Map<String, Object>> withArchivedFields(List<Map<String, Object>> rows, boolean includeArchived,
+            Specification<ArchivedTask> scope, List<TaskField> fields) {
+        if (!includeArchived) {
+            return rows;
+        }
+        List<Map<String, Object>> merged = new ArrayList<>(rows);
+        taskRepository.findFields(ArchivedTask.class, scope, Sort.by("id"), fields)
+                .forEach(row -> merged.add(archivedRow(row)));
+        return merged;
+    }
+
+    private static Map<String, Object> archivedRow(Map<String, Object> row) {
+        row.put("archived", true);
+        return row;
+    }
+
+    public Task createTask(String username, Long teamId, Task task) {
+        // 團隊任務存在團隊所在分片，個人任務存在建立者的 home shard
+        int shard = teamId != null
+                ? shardDirectory.shardForTeam(teamId)
+                : shardDirectory.homeShard(shardRouter.readOnShard(0, () -> findUser(username)));
+        Task created = shardRouter.onShard(shard, () -> {
+            User currentUser = findUser(username);
+            task.setUser(currentUser); // 設定建立者
+
+            if (task.getStatus() == null || task.getStatus().isEmpty()) {
+                task.setStatus("todo");
+            }
+
+            // 如果沒有指定 assignee，預設為建立者
+            assign(task, task.getAssignee() == null || task.getAssignee().isEmpty()
+                    ? currentUser.getUsername()
+                    : task.getAssignee());
+
+            // 如果指定了團隊 ID，設定團隊
+            if (teamId != null) {
+                Team team = teamRepository.findById(teamId)
+                        .orElseThrow(() -> new RuntimeException("Team not found"));
+                task.setTeam(team);
+            }
+            taskRanking.appendToColumn(task);
+
+            return ShardRouter.initializeTask(taskRepository.save(task));
+        });
+        // 操作紀錄與提醒在交易提交後才記錄，交易失敗時不留下沒有發生的變更
+        taskActivityLog.recordCreate(created, username);
+        reminderScheduler.onTaskSaved(created);
+        teamBoardReader.taskChanged(teamId, created.getId());
+        return created;
+    }
+
+    public Task updateTask(String username, Long id, Task body) {
+        String[] fromStatus = new String[1];
+        Task updated = shardRouter.onShard(shardDirectory.shardForTask(id), () -> {
+            Task task = taskRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Task not found"));
+            fromStatus[0] = task.getStatus();
+
+            if (body.getTitle() != null)
+                task.setTitle(body.getTitle());
+            if (body.getDescription() != null)
+                task.setDescription(body.getDescription());
+            if (body.getStatus() != null)
+                task.setStatus(body.getStatus());
+            if (body.getAssignee() != null)
+                assign(task, body.getAssignee());
+
+            // 如果 body 中有 dueDate（包括 null），就更新它
+            task.setDueDate(body.getDueDate());
+
+            // 換到其他欄位時排在該欄位最後
+            if (!Objects.equals(fromStatus[0], task.getStatus())) {
+                taskRanking.appendToColumn(task);
+            }
+
+            return ShardRouter.initializeTask(taskRepository.save(task));
+        });
+        taskActivityLog.recordUpdate(updated, username, fromStatus[0]);
+        reminderScheduler.onTaskSaved(updated);
+        updateBoard(updated);
+        return updated;
+    }
+
+    /**
+     * 把任務放到 afterId 與 beforeId 之間（status 不為 null 時同時換欄位），只更新被移動的任務。
+     * 位置不合法時拋出 IllegalArgumentException。
+     */
+    public Task moveTask(String username, Long id, String status, Long afterId, Long beforeId) {
+        boolean[] columnRebalanced = new boolean[1];
+        String[] fromStatus = new String[1];
+        Task moved = shardRouter.onShard(shardDirectory.shardForTask(id), () -> {
+            Task task = taskRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Task not found"));
+            fromStatus[0] = task.getStatus();
+            if (status != null) {
+                task.setStatus(status);
+            }
+
+            Task after = afterId != null ? taskRepository.findById(afterId).orElse(null) : null;
+            Task before = beforeId != null ? taskRepository.findById(beforeId).orElse(null) : null;
+            columnRebalanced[0] = taskRanking.moveBetween(task, after, before);
+
+            return ShardRouter.initializeTask(taskRepository.save(task));
+        });
+        taskActivityLog.recordUpdate(moved, username, fromStatus[0]);
+        reminderScheduler.onTaskSaved(moved);
+        if (columnRebalanced[0] && moved.getTeam() != null) {
+            // 同欄位其他卡片的 key 也改變了
+            teamBoardReader.invalidate(moved.getTeam().getId());
+        } else {
+            updateBoard(moved);
+        }
+        return moved;
+    }
+
+    public void deleteTask(String username, Long id) {
+        Task deleted = shardRouter.onShard(shardDirectory.shardForTask(id), () -> {
+            Task task = taskRepository.findById(id).orElse(null);
+            if (task != null) {
+                taskRepository.delete(task);
+            }
+            return task;
+        });
+        if (deleted != null) {
+            taskActivityLog.recordDelete(deleted, username);
+            reminderScheduler.onTaskDeleted(deleted.getId());
+            updateBoard(deleted);
+        }
+    }
+
+    /**
+     * 分配給用戶的任務，涵蓋所有分片上的個人任務與用戶所屬團隊的任務。
+     * cursor 為上一頁回傳的 nextCursor（格式為「截止時間|id」，沒有截止時間的部分為「|id」）。
+     */
+    public AssignedPage getAssignedTasks(String username, String status, String cursor, int limit) {
+        LocalDateTime afterDue = null;
+        long afterId = 0;
+        boolean withoutDueDate = false;
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            try {
+                withoutDueDate = separator == 0;
+                afterDue = withoutDueDate ? null : LocalDateTime.parse(cursor.substring(0, separator));
+                afterId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        LocalDateTime dueCursor = afterDue;
+        long idCursor = afterId;
+        boolean skipDueDates = withoutDueDate;
+        PageRequest page = PageRequest.of(0, limit);
+        // 每個分片最多取 limit 筆，合併排序後再截成一頁
+        List<Task> merged = shardRouter.gather(() -> {
+            User user = findUser(username);
+            List<Task> tasks = new ArrayList<>();
+            if (!skipDueDates) {
+                tasks.addAll(taskRepository.findAssignedWithDueDate(user, status, dueCursor, idCursor, page));
+            }
+            if (tasks.size() < limit) {
+                tasks.addAll(taskRepository.findAssignedWithoutDueDate(user, status, skipDueDates ? idCursor : 0L,
+                        PageRequest.of(0, limit - tasks.size())));
+            }
+            return ShardRouter.initializeTasks(tasks);
+        }, ASSIGNED_ORDER);
+
+        List<Task> items = merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+        String nextCursor = null;
+        if (items.size() == limit) {
+            Task last = items.get(items.size() - 1);
+            nextCursor = (last.getDueDate() != null ? last.getDueDate().toString() : "") + "|" + last.getId();
+        }
+        return new AssignedPage(items, nextCursor);
+    }
+
+    /**
+     * 依條件篩選用戶可見的任務（個人任務 + 所屬團隊的任務），依 id 排序，最多 limit 筆。
+     * 每個分片分別查詢個人範圍與團隊範圍，兩個查詢都不含 OR，才能使用複合索引。
+     */
+    public List<Task> searchTasks(String username, TaskFilter filter, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> merged = shardRouter.gather(() -> {
+            User user = findUser(username);
+            List<Task> tasks = new ArrayList<>();
+
+            Specification<Task> conditions = Specification.where(null);
+            if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+                conditions = conditions.and(TaskSpecifications.statusIn(filter.getStatus()));
+            }
+            if (filter.getAssignee() != null && !filter.getAssignee().isEmpty()) {
+                User assignee = userRepository.findByUsername(filter.getAssignee()).orElse(null);
+                if (assignee == null) {
+                    return tasks;
+                }
+                conditions = conditions.and(TaskSpecifications.assignedTo(assignee));
+            }
+            if (filter.getDueFrom() != null) {
+                conditions = conditions.and(TaskSpecifications.dueFrom(filter.getDueFrom()));
+            }
+            if (filter.getDueTo() != null) {
+                conditions = conditions.and(TaskSpecifications.dueBefore(filter.getDueTo()));
+            }
+            if (Boolean.TRUE.equals(filter.getOverdue())) {
+                conditions = conditions.and(TaskSpecifications.overdue(now));
+            }
+            if (filter.getQ() != null && !filter.getQ().isEmpty()) {
+                conditions = conditions.and(TaskSpecifications.titleStartsWith(filter.getQ()));
+            }
+
+            // 指定 teamId 時只查詢其中用戶所屬的團隊，不含個人任務
+            List<Long> teamIds = new ArrayList<>(teamMemberRepository.findTeamIdsByUser(user));
+            if (filter.getTeamId() != null && !filter.getTeamId().isEmpty()) {
+                teamIds.retainAll(filter.getTeamId());
+            } else {
+                tasks.addAll(findFiltered(conditions.and(TaskSpecifications.personalOf(user)), limit));
+            }
+            if (!teamIds.isEmpty()) {
+                tasks.addAll(findFiltered(conditions.and(TaskSpecifications.inTeams(teamIds)), limit));
+            }
+            return ShardRouter.initializeTasks(tasks);
+        }, Comparator.comparing(Task::getId));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    private List<Task> findFiltered(Specification<Task> specification, int limit) {
+        return taskRepository.findBy(specification, query -> query.sortBy(Sort.by("id")).limit(limit).all());
+    }
+
+    /**
+     * 設定任務的負責人：assignedTo 是分配的依據，assignee 字串作為顯示名稱。
+     * 找不到對應用戶（自由輸入的名稱）時 assignedTo 為 null。需在任務所在分片的交易中呼叫。
+     */
+    public void assign(Task task, String assignee) {
+        task.setAssignee(assignee);
+        task.setAssignedTo(assignee == null || assignee.isEmpty()
+                ? null
+                : userRepository.findByUsername(assignee).orElse(null));
+    }
+
+    // 啟動時為只有 assignee 字串的舊資料補上 assigned_to
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillAssignments() {
+        for (int shard = 0; shard < shardDirectory.getShardCount(); shard++) {
+            try {
+                int updated = shardRouter.onShard(shard, taskRepository::backfillAssignedTo);
+                if (updated > 0) {
+                    log.info("Backfilled assigned_to for {} tasks on shard {}", updated, shard);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to backfill assigned_to on shard {}", shard, e);
+            }
+        }
+    }
+
+    /**
+     * 任務的操作紀錄。只有任務的建立者或所屬團隊的成員可以讀取（已歸檔、已刪除的任務相同），否則拋出 OperationDeniedException。
+     */
+    public List<TaskActivity> getActivity(String username, Long taskId, Long before, PageRequest page) {
+        User user = shardRouter.readOnShard(0, () -> findUser(username));
+        boolean exists = shardRouter.readOnShard(shardDirectory.shardForTask(taskId), () -> {
+            Task task = taskRepository.findById(taskId).orElse(null);
+            if (task != null) {
+                requireTaskAccess(user, task.getUser(), task.getTeam());
+                return true;
+            }
+            ArchivedTask archived = archivedTaskRepository.findById(taskId).orElse(null);
+            if (archived != null) {
+                requireTaskAccess(user, archived.getUser(), archived.getTeam());
+                return true;
+            }
+            return false;
+        });
+        if (!exists) {
+            requireDeletedTaskAccess(user, taskId);
+        }
+        return shardRouter.readOnShard(0, () -> before == null
+                ? taskActivityRepository.findByTaskIdOrderByIdDesc(taskId, page)
+                : taskActivityRepository.findByTaskIdAndIdLessThanOrderByIdDesc(taskId, before, page));
+    }
+
+    // 任務已刪除：依操作紀錄判斷，建立者為 CREATE 紀錄的操作者，團隊為最後一筆紀錄所屬的團隊
+    private void requireDeletedTaskAccess(User user, Long taskId) {
+        TaskActivity latest = shardRouter.readOnShard(0, () -> taskActivityRepository.findFirstByTaskIdOrderByIdDesc(taskId))
+                .orElseThrow(() -> new OperationDeniedException(404, "Task not found"));
+        boolean creatorMatches = shardRouter.readOnShard(0, () -> taskActivityRepository
+                .findFirstByTaskIdAndActionOrderByIdAsc(taskId, TaskActivity.Action.CREATE))
+                .map(created -> user.getUsername().equals(created.getActor()))
+                .orElse(false);
+        if (creatorMatches) {
+            return;
+        }
+        Long teamId = latest.getTeamId();
+        boolean member = teamId != null && shardRouter.readOnShard(shardDirectory.shardForTeam(teamId),
+                () -> teamRepository.findById(teamId)
+                        .map(team -> teamMemberRepository.findByTeamAndUser(team, user).isPresent())
+                        .orElse(false));
+        if (!member) {
+            throw new OperationDeniedException(403, "Access denied");
+        }
+    }
+
+    // 需在任務所在分片的交易內呼叫
+    private void requireTaskAccess(User user, User creator, Team team) {
+        boolean creatorMatches = creator != null && creator.getId().equals(user.getId());
+        if (!creatorMatches && (team == null || teamMemberRepository.findByTeamAndUser(team, user).isEmpty())) {
+            throw new OperationDeniedException(403, "Access denied");
+        }
+    }
+
+    // 需在交易內呼叫：已歸檔任務的團隊成員在 JSON 中也會輸出
+    static List<Task> withArchived(List<Task> tasks, List<ArchivedTask> archived) {
+        List<Task> merged = new ArrayList<>(tasks.size() + archived.size());
+        merged.addAll(tasks);
+        for (ArchivedTask task : archived) {
+            merged.add(ShardRouter.initializeTask(task.toTask()));
+        }
+        return merged;
+    }
+
+    // 把異動寫入快取中的團隊看板
+    private void updateBoard(Task task) {
+        if (task.getTeam() != null) {
+            teamBoardReader.taskChanged(task.getTeam().getId(), task.getId());
+        }
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.Team;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TeamMemberRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.sharding.ShardDirectory;
+import com.example.backend.sharding.ShardRouter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 團隊看板的讀取：活躍團隊的看板以 BoardModel 常駐記憶體，讀取直接串接已序列化的任務 JSON。
+ * 第一次讀取（或被淘汰後）才查資料庫，同一團隊、同一版本的並行請求共用一次查詢；
+ * 看板帶有成員名單，每個呼叫者各自檢查權限，不需要額外查詢。
+ * 任務異動在交易提交後呼叫 taskChanged，只重新讀取該任務並寫入快取中的看板；
+ * 成員異動或整欄重排則呼叫 invalidate 丟棄看板。快取依 LRU 在 board.cache.max-bytes 內淘汰。
+ * 每個異動也透過 InvalidationBus 通知其他 instance，由它們在自己的快取套用相同的更新。
+ */
+@Component
+public class TeamBoardReader {
+
+    private static final Logger log = LoggerFactory.getLogger(TeamBoardReader.class);
+
+    static final String CACHE_NAME = "board";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${board.coalesce-timeout-ms:5000}")
+    private long coalesceTimeoutMs;
+
+    @Value("${board.cache.max-bytes:33554432}")
+    private long maxCacheBytes;
+
+    private final SingleFlight<String, BoardModel> singleFlight = new SingleFlight<>();
+    private final ConcurrentHashMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // access-order 的 LinkedHashMap 作為 LRU；boards 與 cachedBytes 都以 boards 為鎖
+    private final LinkedHashMap<Long, BoardModel> boards = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TeamBoardReader(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("board.reads", singleFlight, SingleFlight::getLeaders)
+                .description("Team board reads that ran the database query")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("board.reads", singleFlight, SingleFlight::getFollowers)
+                .description("Team board reads that shared an in-flight query")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        FunctionCounter.builder("board.coalesce.timeouts", singleFlight, SingleFlight::getTimeouts)
+                .description("Team board reads that gave up waiting for a shared query")
+                .register(meterRegistry);
+        Gauge.builder("board.coalescing.ratio", singleFlight, SingleFlight::coalescingRatio)
+                .description("Share of team board reads served from another request's query")
+                .register(meterRegistry);
+        Gauge.builder("board.in_flight", singleFlight, SingleFlight::inFlightCount)
+                .description("Team board queries currently running")
+                .register(meterRegistry);
+        FunctionCounter.builder("board.cache.requests", hits, AtomicLong::get)
+                .description("Team board reads served from the in-memory board cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("board.cache.requests", misses, AtomicLong::get)
+                .description("Team board reads that had to load the board from the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("board.cache.bytes", this, TeamBoardReader::cachedBytes)
+                .description("Estimated memory held by cached team boards")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("board.cache.boards", this, TeamBoardReader::cachedBoards)
+                .description("Team boards currently cached in memory")
+                .register(meterRegistry);
+    }
+
+    // 其他 instance 的異動：task:{teamId}:{taskId}、invalidate:{teamId}、forget:{teamId}
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(CACHE_NAME, new InvalidationBus.Listener() {
+            @Override
+            public void invalidate(String key) {
+                String[] parts = key.split(":");
+                Long teamId = Long.valueOf(parts[1]);
+                switch (parts[0]) {
+                    case "task" -> applyTaskChange(teamId, Long.valueOf(parts[2]));
+                    case "invalidate" -> evictBoard(teamId);
+                    case "forget" -> forgetBoard(teamId);
+                    default -> throw new IllegalArgumentException("Unknown board invalidation: " + key);
+                }
+            }
+
+            @Override
+            public void invalidateAll() {
+                synchronized (boards) {
+                    boards.keySet().forEach(TeamBoardReader.this::bumpVersion);
+                    boards.clear();
+                    cachedBytes = 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * 回傳團隊任務清單的 JSON；非團隊成員時拋出 403，等待共用查詢逾時則拋出 503。
+     */
+    public byte[] read(String username, Long teamId) {
+        BoardModel board = cached(teamId);
+        if (board != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            long version = currentVersion(teamId);
+            try {
+                board = singleFlight.execute(teamId + "@" + version, () -> loadAndCache(teamId, version),
+                        coalesceTimeoutMs);
+            } catch (TimeoutException e) {
+                throw new OperationDeniedException(503, "Team board is still loading, please retry");
+            }
+        }
+        if (!board.isMember(username)) {
+            throw new OperationDeniedException(403, "Access denied");
+        }
+        return board.render();
+    }
+
+    /**
+     * 任務新增、更新、移動或刪除後（交易提交後）呼叫：看板已在快取中時只重新讀取這一個任務並寫入，
+     * 任務已刪除或不再屬於此團隊時從看板移除。
+     */
+    public void taskChanged(Long teamId, Long taskId) {
+        if (teamId == null) {
+            return;
+        }
+        applyTaskChange(teamId, taskId);
+        invalidationBus.publish(CACHE_NAME, "task:" + teamId + ":" + taskId);
+    }
+
+    // 成員異動或整欄重排後（交易提交後）呼叫，丟棄整個看板，下次讀取重新載入
+    public void invalidate(Long teamId) {
+        if (teamId != null) {
+            evictBoard(teamId);
+            invalidationBus.publish(CACHE_NAME, "invalidate:" + teamId);
+        }
+    }
+
+    // 團隊已刪除
+    public void forget(Long teamId) {
+        forgetBoard(teamId);
+        invalidationBus.publish(CACHE_NAME, "forget:" + teamId);
+    }
+
+    private void applyTaskChange(Long teamId, Long taskId) {
+        // 先換版本：進行中的載入可能沒看到這次異動，完成後不會放進快取
+        bumpVersion(teamId);
+        BoardModel board = cached(teamId);
+        if (board == null) {
+            return;
+        }
+        // 同一看板的寫入依序套用，避免較舊的讀取結果覆蓋較新的
+        synchronized (board) {
+            try {
+                Optional<Task> task = shardRouter.readOnShard(shardDirectory.shardForTeam(teamId),
+                        () -> taskRepository.findById(taskId).map(ShardRouter::initializeTask));
+                byte[] payload = task.filter(t -> t.getTeam() != null && teamId.equals(t.getTeam().getId()))
+                        .map(this::serialize)
+                        .orElse(null);
+                synchronized (boards) {
+                    if (boards.get(teamId) != board) {
+                        return;
+                    }
+                    cachedBytes += payload != null
+                            ? board.upsert(taskId, task.get().getStatus(), task.get().getRank(), payload)
+                            : board.remove(taskId);
+                    evictOverBudget();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to update cached board for team {}, evicting it", teamId, e);
+                evict(teamId);
+            }
+        }
+    }
+
+    private void evictBoard(Long teamId) {
+        bumpVersion(teamId);
+        evict(teamId);
+    }
+
+    private void forgetBoard(Long teamId) {
+        evict(teamId);
+        versions.remove(teamId);
+    }
+
+    private void bumpVersion(Long teamId) {
+        versions.computeIfAbsent(teamId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    // 讀取時不建立項目，避免不存在的 team id 讓版本表無限成長
+    private long currentVersion(Long teamId) {
+        AtomicLong version = versions.get(teamId);
+        return version == null ? 0 : version.get();
+    }
+
+    private BoardModel cached(Long teamId) {
+        synchronized (boards) {
+            return boards.get(teamId);
+        }
+    }
+
+    private BoardModel loadAndCache(Long teamId, long version) {
+        BoardModel board = load(teamId);
+        synchronized (boards) {
+            // 載入期間有異動就不放進快取，下一次讀取會以新版本重新載入
+            if (currentVersion(teamId) == version && board.bytes() <= maxCacheBytes) {
+                BoardModel previous = boards.put(teamId, board);
+                if (previous != null) {
+                    cachedBytes -= previous.bytes();
+                }
+                cachedBytes += board.bytes();
+                evictOverBudget();
+            }
+        }
+        return board;
+    }
+
+    private void evict(Long teamId) {
+        synchronized (boards) {
+            BoardModel removed = boards.remove(teamId);
+            if (removed != null) {
+                cachedBytes -= removed.bytes();
+            }
+        }
+    }
+
+    // 需持有 boards 的鎖；從最久未讀取的看板開始淘汰
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, BoardModel>> eldest = boards.entrySet().iterator();
+        while (cachedBytes > maxCacheBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+        }
+    }
+
+    long cachedBytes() {
+        synchronized (boards) {
+            return cachedBytes;
+        }
+    }
+
+    int cachedBoards() {
+        synchronized (boards) {
+            return boards.size();
+        }
+    }
+
+    private BoardModel load(Long teamId) {
+        return shardRouter.readOnShard(shardDirectory.shardForTeam(teamId), () -> {
+            Team team = teamRepository.findById(teamId)
+                    .orElseThrow(() -> new RuntimeException("Team not found"));
+            Set<String> members = teamMemberRepository.findByTeam(team).stream()
+                    .map(member -> member.getUser().getUsername())
+                    .collect(Collectors.toUnmodifiableSet());
+            BoardModel board = new BoardModel(members);
+            for (Task task : ShardRouter.initializeTasks(taskRepository.findByTeamOrderByStatusAscRankAscIdAsc(team))) {
+                board.upsert(task.getId(), task.getStatus(), task.getRank(), serialize(task));
+            }
+            return board;
+        });
+    }
+
+    private byte[] serialize(Task task) {
+        try {
+            return objectMapper.writeValueAsBytes(task);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize team board", e);
+        }
+    }
+}
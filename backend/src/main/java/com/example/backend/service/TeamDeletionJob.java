@@ -0,0 +1,117 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Task;
+import com.example.backend.repository.ArchivedTaskRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TeamMemberRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.sharding.ShardDirectory;
+import com.example.backend.sharding.ShardRouter;
+
+import java.util.List;
+
+/**
+ * 背景刪除團隊：確認沒有未完成的任務後移除所有成員（團隊從成員的清單消失，也無法再新增任務），
+ * 再以每批一個交易刪除任務，最後刪除已歸檔的任務與團隊。中途失敗重試時從剩下的任務繼續。
+ */
+@Component
+public class TeamDeletionJob implements JobHandler {
+
+    public static final String TYPE = "team.delete";
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private TaskActivityLog taskActivityLog;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private TeamBoardReader teamBoardReader;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jobs.team-delete.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public String run(JobContext context) throws Exception {
+        JsonNode payload = objectMapper.readTree(context.getPayload());
+        long teamId = payload.get("teamId").asLong();
+        String username = payload.get("username").asText();
+        int shard = shardDirectory.shardForTeam(teamId);
+
+        long total = shardRouter.onShard(shard, () -> teamRepository.findById(teamId)
+                .map(team -> {
+                    // 請求檢查之後成員仍可能新增任務或把任務移回未完成，與移除成員在同一個交易中再檢查一次
+                    long incompleteTasks = taskRepository.countIncompleteByTeamId(teamId);
+                    if (incompleteTasks > 0) {
+                        throw new OperationDeniedException(400, "Team " + teamId + " has " + incompleteTasks
+                                + " incomplete tasks, deletion cancelled");
+                    }
+                    teamMemberRepository.deleteAll(teamMemberRepository.findByTeam(team));
+                    return taskRepository.countByTeamId(teamId);
+                })
+                .orElse(-1L));
+        teamBoardReader.forget(teamId);
+        if (total < 0) {
+            return "Team " + teamId + " was already deleted";
+        }
+
+        long deleted = 0;
+        while (true) {
+            List<Task> batch = shardRouter.onShard(shard, () -> {
+                List<Task> tasks = taskRepository.findByTeamIdOrderByIdAsc(teamId, PageRequest.of(0, batchSize));
+                taskRepository.deleteAll(tasks);
+                return tasks;
+            });
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Task task : batch) {
+                taskActivityLog.recordDelete(task, username);
+                reminderScheduler.onTaskDeleted(task.getId());
+            }
+            deleted += batch.size();
+            context.progress((int) (deleted * 99 / Math.max(total, deleted)));
+        }
+
+        shardRouter.onShard(shard, () -> {
+            archivedTaskRepository.deleteByTeamId(teamId);
+            teamRepository.findById(teamId).ifPresent(teamRepository::delete);
+            return null;
+        });
+        teamBoardReader.forget(teamId);
+        return "Deleted team " + teamId + " and " + deleted + " tasks";
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.dto.TeamSummary;
+import com.example.backend.model.Job;
+import com.example.backend.model.Task;
+import com.example.backend.model.Team;
+import com.example.backend.model.TeamMember;
+import com.example.backend.model.User;
+import com.example.backend.repository.ArchivedTaskRepository;
+import com.example.backend.repository.TaskField;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TaskSpecifications;
+import com.example.backend.repository.TeamMemberRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.sharding.ShardDirectory;
+import com.example.backend.sharding.ShardRouter;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 團隊的交易邊界。
+ * 每個操作在團隊所在分片上以一個交易執行（查詢為唯讀交易），權限不符時拋出 OperationDeniedException。
+ */
+@Service
+public class TeamService {
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private TaskActivityLog taskActivityLog;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private TaskRanking taskRanking;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TeamBoardReader teamBoardReader;
+
+    @Autowired
+    private JobQueue jobQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    // 建立團隊，建立者自動成為 OWNER；團隊與成員在同一交易中寫入
+    public Team createTeam(String username, String name, String description) {
+        // 新團隊由分片目錄決定存放的分片，之後依 team id 即可找回
+        return shardRouter.onShard(shardDirectory.shardForNewTeam(), () -> {
+            User currentUser = findUser(username);
+
+            Team team = new Team();
+            team.setName(name);
+            team.setDescription(description);
+            team.setCreatedBy(currentUser);
+            Team created = teamRepository.save(team);
+
+            TeamMember ownerMember = new TeamMember();
+            ownerMember.setTeam(created);
+            ownerMember.setUser(currentUser);
+            ownerMember.setRole(TeamMember.Role.OWNER);
+            teamMemberRepository.save(ownerMember);
+            return created;
+        });
+    }
+
+    // 在每個分片上以一次彙總查詢取得團隊、用戶角色與成員數（不載入成員清單）
+    public List<TeamSummary> getUserTeams(String username) {
+        return shardRouter.gather(() -> teamRepository.findTeamSummariesByUser(findUser(username)),
+                Comparator.comparing(TeamSummary::getId));
+    }
+
+    public Team getTeam(String username, Long teamId) {
+        return shardRouter.readOnShard(shardDirectory.shardForTeam(teamId), () -> {
+            Team team = findTeamAsMember(teamId, findUser(username));
+            return ShardRouter.initializeTeam(team);
+        });
+    }
+
+    // 取得團隊成員；limit 不為 null 時以 afterId 作為游標分頁
+    public List<TeamMember> getTeamMembers(String username, Long teamId, Long afterId, Integer limit) {
+        return shardRouter.readOnShard(shardDirectory.shardForTeam(teamId), () -> {
+            Team team = findTeamAsMember(teamId, findUser(username));
+            return (limit == null)
+                    ? teamMemberRepository.findByTeam(team)
+                    : teamMemberRepository.findByTeamAndIdGreaterThanOrderByIdAsc(team,
+                            afterId != null ? afterId : 0L, PageRequest.of(0, Math.max(1, Math.min(limit, 200))));
+        });
+    }
+
+    public TeamMember inviteMember(String username, Long teamId, String inviteeUsername) {
+        TeamMember savedMember = shardRouter.onShard(shardDirectory.shardForTeam(teamId), () -> {
+            Team team = findTeam(teamId);
+
+            // 檢查當前用戶是否有權限（OWNER 或 ADMIN）
+            requireManager(team, findUser(username));
+
+            // 找到要邀請的用戶
+            User userToInvite = userRepository.findByUsername(inviteeUsername)
+                    .orElseThrow(() -> new RuntimeException("User not found: " + inviteeUsername));
+
+            // 檢查用戶是否已經是團隊成員
+            if (teamMemberRepository.findByTeamAndUser(team, userToInvite).isPresent()) {
+                throw new OperationDeniedException(400, "User is already a member");
+            }
+
+            TeamMember newMember = new TeamMember();
+            newMember.setTeam(team);
+            newMember.setUser(userToInvite);
+            newMember.setRole(TeamMember.Role.MEMBER);
+            return teamMemberRepository.save(newMember);
+        });
+        teamBoardReader.invalidate(teamId);
+        return savedMember;
+    }
+
+    // 團隊看板（已序列化的任務清單 JSON），同時開啟同一看板的請求共用一次查詢；
+    // includeArchived 時在看板之後接上已歸檔的任務（不經過看板快取）
+    public byte[] getTeamTasks(String username, Long teamId, boolean includeArchived) {
+        byte[] board = teamBoardReader.read(username, teamId);
+        if (!includeArchived) {
+            return board;
+        }
+        byte[] archived = shardRouter.readOnShard(shardDirectory.shardForTeam(teamId), () -> {
+            List<Task> tasks = TaskService.withArchived(List.of(),
+                    archivedTaskRepository.findByTeamOrderByIdAsc(findTeam(teamId)));
+            try {
+                return objectMapper.writeValueAsBytes(tasks);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize archived tasks", e);
+            }
+        });
+        return concatArrays(board, archived);
+    }
+
+    // 團隊看板只取 fields 指定的欄位：直接查詢（不經過看板快取），順序與看板相同
+    public List<Map<String, Object>> getTeamTaskFields(String username, Long teamId, List<TaskField> fields,
+            boolean includeArchived) {
+        return shardRouter.readOnShard(shardDirectory.shardForTeam(teamId), () -> {
+            findTeamAsMember(teamId, findUser(username));
+            return taskService.withArchivedFields(taskRepository.findFields(Task.class,
+                    TaskSpecifications.inTeams(List.of(teamId)), TaskService.BOARD_ORDER, fields),
+                    includeArchived, TaskSpecifications.inTeams(List.of(teamId)), fields);
+        });
+    }
+
+    // 合併兩個 JSON 陣列：[a,b] + [c] -> [a,b,c]
+    private static byte[] concatArrays(byte[] first, byte[] second) {
+        if (first.length <= 2) {
+            return second;
+        }
+        if (second.length <= 2) {
+            return first;
+        }
+        byte[] merged = new byte[first.length + second.length - 1];
+        System.arraycopy(first, 0, merged, 0, first.length - 1);
+        merged[first.length - 1] = ',';
+        System.arraycopy(second, 1, merged, first.length, second.length - 1);
+        return merged;
+    }
+
+    public Task createTeamTask(String username, Long teamId, Task task) {
+        Task savedTask = shardRouter.onShard(shardDirectory.shardForTeam(teamId), () -> {
+            User currentUser = findUser(username);
+            Team team = findTeamAsMember(teamId, currentUser);
+
+            task.setUser(currentUser); // 建立者
+            task.setTeam(team); // 所屬團隊
+
+            if (task.getStatus() == null || task.getStatus().isEmpty()) {
+                task.setStatus("todo");
+            }
+
+            taskService.assign(task, task.getAssignee() == null || task.getAssignee().isEmpty()
+                    ? currentUser.getUsername()
+                    : task.getAssignee());
+
+            taskRanking.appendToColumn(task);
+
+            return ShardRouter.initializeTask(taskRepository.save(task));
+        });
+        // 與 TaskService 相同，交易提交後才記錄
+        taskActivityLog.recordCreate(savedTask, username);
+        reminderScheduler.onTaskSaved(savedTask);
+        teamBoardReader.taskChanged(teamId, savedTask.getId());
+        return savedTask;
+    }
+
+    public void removeMember(String username, Long teamId, Long memberId) {
+        shardRouter.onShard(shardDirectory.shardForTeam(teamId), () -> {
+            Team team = findTeam(teamId);
+            requireManager(team, findUser(username));
+
+            TeamMember memberToRemove = teamMemberRepository.findById(memberId)
+                    .orElseThrow(() -> new RuntimeException("Member not found"));
+
+            // 不能移除團隊擁有者
+            if (memberToRemove.getRole() == TeamMember.Role.OWNER) {
+                throw new OperationDeniedException(400, "Cannot remove team owner");
+            }
+
+            teamMemberRepository.delete(memberToRemove);
+            return null;
+        });
+        teamBoardReader.invalidate(teamId);
+    }
+
+    // 刪除團隊：只有擁有者可以刪除，且所有任務都已完成。
+    // 請求中只檢查權限，成員、任務與團隊由背景工作（TeamDeletionJob）分批刪除
+    public Job deleteTeam(String username, Long teamId) {
+        shardRouter.readOnShard(shardDirectory.shardForTeam(teamId), () -> {
+            Team team = findTeam(teamId);
+
+            TeamMember currentMember = teamMemberRepository.findByTeamAndUser(team, findUser(username))
+                    .orElseThrow(() -> new RuntimeException("You are not a member of this team"));
+            if (currentMember.getRole() != TeamMember.Role.OWNER) {
+                throw new OperationDeniedException(403, "Only team owner can delete the team");
+            }
+
+            // 檢查團隊是否有未完成的任務
+            long incompleteTasks = taskRepository.countIncompleteByTeamId(teamId);
+            if (incompleteTasks > 0) {
+                throw new OperationDeniedException(400, "Cannot delete team with incomplete tasks. Complete or reassign "
+                        + incompleteTasks + " tasks first.");
+            }
+            return null;
+        });
+        // 重複的刪除請求回傳同一個工作；任務可能在工作執行前又有變動，TeamDeletionJob 會再檢查一次
+        return jobQueue.enqueueUnlessPending(TeamDeletionJob.TYPE, "team:" + teamId,
+                Map.of("teamId", teamId, "username", username), username);
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private Team findTeam(Long teamId) {
+        return teamRepository.findById(teamId)
+                .orElseThrow(() -> new RuntimeException("Team not found"));
+    }
+
+    // 非團隊成員時拋出 403
+    private Team findTeamAsMember(Long teamId, User user) {
+        Team team = findTeam(teamId);
+        if (teamMemberRepository.findByTeamAndUser(team, user).isEmpty()) {
+            throw new OperationDeniedException(403, "Access denied");
+        }
+        return team;
+    }
+
+    private void requireManager(Team team, User user) {
+        TeamMember currentMember = teamMemberRepository.findByTeamAndUser(team, user)
+                .orElseThrow(() -> new RuntimeException("You are not a member of this team"));
+        if (currentMember.getRole() != TeamMember.Role.OWNER && currentMember.getRole() != TeamMember.Role.ADMIN) {
+            throw new OperationDeniedException(403, "Insufficient permissions");
+        }
+    }
+}
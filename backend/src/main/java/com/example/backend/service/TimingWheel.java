@@ -0,0 +1,181 @@
+package com.example.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 階層式時間輪（hierarchical timing wheel）。
+ * 每層有 wheelSize 個桶，第 i 層每格長度為 tickMs * wheelSize^i，超出範圍時再往上加一層。
+ * 新增與取消皆為 O(1)；推進時鐘時上層的桶會逐層下放到下層，到期的項目交給 callback。
+ * 非執行緒安全，由呼叫端負責同步。
+ */
+public class TimingWheel<T> {
+
+    public static final class Entry<T> {
+        private final T value;
+        private final long expirationMs;
+        private Bucket<T> bucket;
+        private Entry<T> prev;
+        private Entry<T> next;
+
+        private Entry(T value, long expirationMs) {
+            this.value = value;
+            this.expirationMs = expirationMs;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getExpirationMs() {
+            return expirationMs;
+        }
+
+        public boolean isScheduled() {
+            return bucket != null;
+        }
+    }
+
+    // 雙向鏈結串列，讓取消操作為 O(1)
+    private static final class Bucket<T> {
+        private Entry<T> head;
+
+        void add(Entry<T> e) {
+            e.bucket = this;
+            e.next = head;
+            if (head != null) {
+                head.prev = e;
+            }
+            head = e;
+        }
+
+        void remove(Entry<T> e) {
+            if (e.prev != null) {
+                e.prev.next = e.next;
+            } else {
+                head = e.next;
+            }
+            if (e.next != null) {
+                e.next.prev = e.prev;
+            }
+            e.prev = null;
+            e.next = null;
+            e.bucket = null;
+        }
+
+        Entry<T> drain() {
+            Entry<T> first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    // 每層的每格長度與桶陣列，索引 0 為最細的一層
+    private final List<Long> levelTicks = new ArrayList<>();
+    private final List<Bucket<T>[]> levels = new ArrayList<>();
+    // 小於 currentTime 的項目都已觸發；永遠對齊 tickMs
+    private long currentTime;
+    private int size;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize at least 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        addLevel();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        long tick = levels.isEmpty() ? tickMs : levelTicks.get(levelTicks.size() - 1) * wheelSize;
+        Bucket<T>[] buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        levelTicks.add(tick);
+        levels.add(buckets);
+    }
+
+    /**
+     * 排入項目。若已到期（早於目前時間）則不排入並回傳 null，由呼叫端立即處理。
+     */
+    public Entry<T> schedule(T value, long expirationMs) {
+        if (expirationMs < currentTime) {
+            return null;
+        }
+        Entry<T> entry = new Entry<>(value, expirationMs);
+        place(entry);
+        size++;
+        return entry;
+    }
+
+    public void cancel(Entry<T> entry) {
+        if (entry != null && entry.bucket != null) {
+            entry.bucket.remove(entry);
+            size--;
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0;; level++) {
+            if (level == levels.size()) {
+                addLevel();
+            }
+            long tick = levelTicks.get(level);
+            long levelStart = currentTime - (currentTime % tick);
+            if (entry.expirationMs < levelStart + tick * wheelSize) {
+                levels.get(level)[(int) ((entry.expirationMs / tick) % wheelSize)].add(entry);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 推進時鐘到 nowMs，所有到期的項目依序交給 expired。
+     */
+    public void advanceClock(long nowMs, Consumer<Entry<T>> expired) {
+        long target = nowMs - (nowMs % tickMs);
+        while (currentTime < target) {
+            long slot = currentTime;
+            // 由上而下把剛進入目前格的上層桶下放
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                long tick = levelTicks.get(level);
+                if (slot % tick == 0) {
+                    Bucket<T> bucket = levels.get(level)[(int) ((slot / tick) % wheelSize)];
+                    for (Entry<T> e = bucket.drain(); e != null;) {
+                        Entry<T> next = e.next;
+                        e.prev = null;
+                        e.next = null;
+                        e.bucket = null;
+                        place(e);
+                        e = next;
+                    }
+                }
+            }
+            Bucket<T> due = levels.get(0)[(int) ((slot / tickMs) % wheelSize)];
+            currentTime += tickMs;
+            for (Entry<T> e = due.drain(); e != null;) {
+                Entry<T> next = e.next;
+                e.prev = null;
+                e.next = null;
+                e.bucket = null;
+                size--;
+                expired.accept(e);
+                e = next;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分片目錄：決定團隊、任務與使用者個人任務所在的分片。
+ * 各分片的 teams / team_members / tasks 主鍵以分片數為間隔遞增（分片 i 產生 i+1, i+1+N, ...），
+ * 因此任何團隊或任務的 id 都能直接換算出所在分片，不需額外查表。
+ */
+@Component
+public class ShardDirectory {
+
+    private final int shardCount;
+    private final AtomicInteger nextTeamShard = new AtomicInteger();
+
+    public ShardDirectory(@Value("${sharding.enabled:false}") boolean enabled,
+            @Value("${sharding.urls:}") List<String> urls) {
+        this.shardCount = enabled && !urls.isEmpty() ? urls.size() : 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardForTeam(Long teamId) {
+        return shardForId(teamId);
+    }
+
+    public int shardForTask(Long taskId) {
+        return shardForId(taskId);
+    }
+
+    // 個人任務放在使用者的 home shard
+    public int homeShard(User user) {
+        return (int) (user.getId() % shardCount);
+    }
+
+    public int shardForTask(Task task) {
+        if (task.getTeam() != null) {
+            return shardForTeam(task.getTeam().getId());
+        }
+        return homeShard(task.getUser());
+    }
+
+    // 新團隊輪流分配到各分片
+    public int shardForNewTeam() {
+        return Math.floorMod(nextTeamShard.getAndIncrement(), shardCount);
+    }
+
+    private int shardForId(Long id) {
+        return (int) ((id - 1) % shardCount);
+    }
+}
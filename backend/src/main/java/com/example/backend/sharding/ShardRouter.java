@@ -0,0 +1,185 @@
+package com.example.backend.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.Team;
+import com.example.backend.model.User;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 在指定分片上執行資料存取。
+ * 每次呼叫都在該分片的交易中執行，實體離開交易前會先載入 JSON 需要的延遲集合；
+ * 跨分片查詢以平行 scatter-gather 執行後合併結果。
+ * 唯讀的交易（readOnShard、gather）讓 Hibernate 以 FlushMode.MANUAL 執行並把實體載入為唯讀，
+ * 不保留快照也不做 dirty checking。
+ */
+@Component
+public class ShardRouter {
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${sharding.gather-timeout-ms:10000}")
+    private long gatherTimeoutMs;
+
+    private final TransactionTemplate joinTemplate;
+    private final TransactionTemplate newTemplate;
+    private final TransactionTemplate readOnlyJoinTemplate;
+    private final TransactionTemplate readOnlyNewTemplate;
+    private ExecutorService gatherExecutor;
+
+    public ShardRouter(PlatformTransactionManager transactionManager) {
+        this.joinTemplate = new TransactionTemplate(transactionManager);
+        this.newTemplate = new TransactionTemplate(transactionManager);
+        this.newTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyJoinTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyJoinTemplate.setReadOnly(true);
+        this.readOnlyNewTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyNewTemplate.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (gatherExecutor != null) {
+            gatherExecutor.shutdownNow();
+        }
+    }
+
+    // 寫入：整個 work 在同一個交易中提交
+    public <T> T onShard(int shard, Supplier<T> work) {
+        return execute(shard, work, joinTemplate, newTemplate);
+    }
+
+    // 唯讀查詢；若已在同一分片的讀寫交易中則直接加入該交易
+    public <T> T readOnShard(int shard, Supplier<T> work) {
+        return execute(shard, work, readOnlyJoinTemplate, readOnlyNewTemplate);
+    }
+
+    private <T> T execute(int shard, Supplier<T> work, TransactionTemplate join, TransactionTemplate create) {
+        Integer previous = ShardContext.get();
+        // 已在同一分片的交易中就沿用；否則另開交易，才會向該分片取得新連線
+        boolean joinExisting = TransactionSynchronizationManager.isActualTransactionActive()
+                && ShardContext.currentOrDefault() == shard;
+        ShardContext.set(shard);
+        try {
+            return (joinExisting ? join : create).execute(status -> work.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * 在所有分片上以唯讀交易平行執行同一查詢並合併結果。
+     */
+    public <T> List<T> gather(Supplier<List<T>> query, Comparator<? super T> order) {
+        int shardCount = shardDirectory.getShardCount();
+        List<T> merged = new ArrayList<>();
+        if (shardCount == 1) {
+            merged.addAll(readOnShard(0, query));
+        } else {
+            List<CompletableFuture<List<T>>> futures = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                int target = shard;
+                futures.add(CompletableFuture.supplyAsync(() -> readOnShard(target, query), executor()));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(gatherTimeoutMs);
+            for (CompletableFuture<List<T>> future : futures) {
+                merged.addAll(await(future, deadline));
+            }
+        }
+        if (order != null) {
+            merged.sort(order);
+        }
+        return merged;
+    }
+
+    // 使用者資料存在分片 0；其他分片保留相同 id 的副本，讓 tasks / teams 的外鍵在各分片都成立
+    public void replicateUser(User user) {
+        for (int shard = 1; shard < shardDirectory.getShardCount(); shard++) {
+            Integer previous = ShardContext.get();
+            ShardContext.set(shard);
+            try {
+                jdbcTemplate.update("INSERT INTO users (id, username, password, email, created_at) VALUES (?, ?, ?, ?, ?)",
+                        user.getId(), user.getUsername(), user.getPassword(), user.getEmail(),
+                        user.getCreatedAt() != null ? Timestamp.valueOf(user.getCreatedAt()) : null);
+            } finally {
+                ShardContext.set(previous);
+            }
+        }
+    }
+
+    public static <C extends Collection<Task>> C initializeTasks(C tasks) {
+        for (Task task : tasks) {
+            if (task.getTeam() != null) {
+                initializeTeam(task.getTeam());
+            }
+        }
+        return tasks;
+    }
+
+    public static Task initializeTask(Task task) {
+        if (task.getTeam() != null) {
+            initializeTeam(task.getTeam());
+        }
+        return task;
+    }
+
+    public static Team initializeTeam(Team team) {
+        Hibernate.initialize(team.getMembers());
+        return team;
+    }
+
+    private <T> List<T> await(CompletableFuture<List<T>> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while querying shards", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RuntimeException("Shard query timed out", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (gatherExecutor == null) {
+            gatherExecutor = Executors.newFixedThreadPool(shardDirectory.getShardCount() * 2, r -> {
+                Thread t = new Thread(r, "shard-gather");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return gatherExecutor;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.backend.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 啟用 sharding.enabled 時，以 sharding.urls 中的每個資料庫作為一個分片。
+ * 分片 0 同時存放使用者等全域資料；未啟用時沿用原本的單一 spring.datasource。
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // 依分片編號間隔遞增主鍵的資料表（見 ShardDirectory）
+    private static final List<String> STRIPED_TABLES = List.of("teams", "team_members", "tasks");
+
+    @Value("${sharding.urls}")
+    private List<String> urls;
+
+    @Value("${sharding.username:sa}")
+    private String username;
+
+    @Value("${sharding.password:}")
+    private String password;
+
+    // 每個分片的連線池大小（spring.datasource.hikari.* 不套用在分片的連線池上）
+    @Value("${sharding.pool-size:10}")
+    private int poolSize;
+
+    @Bean
+    @Primary
+    public DataSource shardRoutingDataSource(Environment environment) {
+        // Open-in-view 會讓整個請求綁定第一次取得的連線，無法在分片之間切換
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("sharding.enabled requires spring.jpa.open-in-view=false");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard))
+                    .username(username)
+                    .password(password)
+                    .build();
+            pool.setMaximumPoolSize(poolSize);
+            pool.setPoolName("shard-" + shard);
+            targets.put(shard, pool);
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(0));
+        return routing;
+    }
+
+    /**
+     * 本機 / 測試用：Hibernate 只會在分片 0 建表，這裡替其他分片建立相同結構，
+     * 並設定 identity 欄位的起始值與間隔。正式環境的 MySQL 分片請改用
+     * auto_increment_offset = i + 1、auto_increment_increment = N 達到相同效果。
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sharding.create-schema", havingValue = "true")
+    public InitializingBean shardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+            JdbcTemplate jdbcTemplate) {
+        return () -> {
+            SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+            for (int shard = 0; shard < urls.size(); shard++) {
+                Integer previous = ShardContext.get();
+                ShardContext.set(shard);
+                try {
+                    if (shard > 0) {
+                        sessionFactory.getSchemaManager().exportMappedObjects(true);
+                    }
+                    for (String table : STRIPED_TABLES) {
+                        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (shard + 1));
+                        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + urls.size());
+                    }
+                } finally {
+                    ShardContext.set(previous);
+                }
+            }
+        };
+    }
+}
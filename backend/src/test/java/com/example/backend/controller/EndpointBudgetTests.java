@@ -0,0 +1,384 @@
+package com.example.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.FractionalIndex;
+import com.example.backend.service.TaskService;
+import com.example.backend.service.TeamBoardReader;
+import com.example.backend.service.TeamService;
+import com.example.backend.support.SqlCapture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 每個 API 端點的 SQL 條數、讀取列數與延遲的回歸測試。
+ * 先建立接近實際使用量的資料（多個團隊、上千個任務），每個端點第一次呼叫時檢查 SQL 條數與讀取列數不超過上限，
+ * 上限與資料量無關，出現 N+1 查詢時會明顯超出；之後重複呼叫取延遲的中位數。
+ * 延遲基準（src/test/resources/perf/endpoint-latency.properties）記錄的是相對於同一次執行中校正端點（auth.me）
+ * 的倍數，與機器快慢無關：預期延遲為基準倍數乘上這次量到的校正延遲，超出 perf.latency.margin（比例）
+ * 加上 perf.latency.slack-ms 時失敗。以 -Dperf.record=true 執行會改為重新記錄基準，-Dperf.latency.enforce=false 可略過延遲檢查。
+ */
+@SpringBootTest(properties = "rate-limit.enabled=false")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE) // 不緩存每個請求的輸出，避免影響延遲
+@Import(SqlCapture.Config.class)
+class EndpointBudgetTests {
+
+	private static final Logger log = LoggerFactory.getLogger(EndpointBudgetTests.class);
+
+	// 校正端點：JWT 驗證加一次主鍵查詢，其他端點的基準以它的延遲為單位
+	private static final String CALIBRATION_ENDPOINT = "auth.me";
+	private static final String BASELINE_RESOURCE = "/perf/endpoint-latency.properties";
+	private static final Path BASELINE_FILE = Path.of("src/test/resources/perf/endpoint-latency.properties");
+	private static final String PASSWORD = "secret";
+	private static final String OWNER = "perf-owner";
+	private static final int TEAMS = 6;
+	private static final int MEMBERS_PER_TEAM = 10;
+	private static final int TASKS_PER_TEAM = 150;
+	private static final int PERSONAL_TASKS = 100;
+	private static final int ARCHIVED_TASKS = 50;
+
+	// 每次呼叫前建立請求；可以先準備需要的資料（例如要刪除的任務），準備期間的 SQL 不計入
+	private interface RequestFactory {
+		MockHttpServletRequestBuilder create() throws Exception;
+	}
+
+	private record Endpoint(String id, int maxStatements, int maxRows, RequestFactory request) {
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private SqlCapture sqlCapture;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TeamBoardReader teamBoardReader;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Value("${perf.record:false}")
+	private boolean record;
+
+	@Value("${perf.samples:7}")
+	private int samples;
+
+	@Value("${perf.latency.enforce:true}")
+	private boolean enforceLatency;
+
+	@Value("${perf.latency.margin:2.0}")
+	private double margin;
+
+	@Value("${perf.latency.slack-ms:25}")
+	private double slackMs;
+
+	private final AtomicInteger sequence = new AtomicInteger();
+	private String passwordHash;
+	private String token;
+	private Long ownerId;
+	private Long teamId;
+	private Long teamTaskId;
+
+	@Test
+	void endpointsStayWithinQueryAndLatencyBudgets() throws Exception {
+		seed();
+
+		List<String> violations = new ArrayList<>();
+		List<Endpoint> endpoints = endpoints();
+		Endpoint calibration = endpoints.stream()
+				.filter(endpoint -> endpoint.id().equals(CALIBRATION_ENDPOINT))
+				.findFirst().orElseThrow();
+		double calibrationBeforeMs = medianLatencyMs(calibration);
+		Map<String, Double> medians = new LinkedHashMap<>();
+		for (Endpoint endpoint : endpoints) {
+			MockHttpServletRequestBuilder first = endpoint.request().create();
+			SqlCapture.Recording recording = sqlCapture.record(() -> mockMvc.perform(first)
+					.andExpect(status().is2xxSuccessful()));
+			if (recording.statements().size() > endpoint.maxStatements()) {
+				violations.add(endpoint.id() + ": " + recording.statements().size() + " statements (max "
+						+ endpoint.maxStatements() + ")\n    " + String.join("\n    ", recording.statements()));
+			}
+			if (recording.rows() > endpoint.maxRows()) {
+				violations.add(endpoint.id() + ": " + recording.rows() + " rows read (max " + endpoint.maxRows() + ")");
+			}
+
+			double medianMs = medianLatencyMs(endpoint);
+			medians.put(endpoint.id(), medianMs);
+			log.info(String.format("%-28s %3d statements %6d rows %8.2f ms", endpoint.id(),
+					recording.statements().size(), recording.rows(), medianMs));
+		}
+
+		// 前後各量一次校正端點，抵銷 JIT 暖機等執行期間的變化
+		double calibrationMs = (calibrationBeforeMs + medianLatencyMs(calibration)) / 2;
+		log.info(String.format("calibration %s: %.2f ms", CALIBRATION_ENDPOINT, calibrationMs));
+		Properties baselines = loadBaselines();
+		Properties measured = new Properties();
+		medians.forEach((id, medianMs) -> {
+			measured.setProperty(id, String.format(Locale.ROOT, "%.3f", medianMs / calibrationMs));
+			String baseline = baselines.getProperty(id);
+			if (enforceLatency && !record && baseline != null) {
+				double expectedMs = Double.parseDouble(baseline) * calibrationMs;
+				double limit = expectedMs * (1 + margin) + slackMs;
+				if (medianMs > limit) {
+					violations.add(String.format("%s: median %.2f ms exceeds baseline %s x %.2f ms = %.2f ms (limit %.2f ms)",
+							id, medianMs, baseline, calibrationMs, expectedMs, limit));
+				}
+			}
+		});
+
+		if (record) {
+			writeBaselines(measured);
+		}
+		assertTrue(violations.isEmpty(), String.join("\n", violations));
+	}
+
+	private List<Endpoint> endpoints() {
+		return List.of(
+				// Auth API
+				new Endpoint("auth.register", 2, 2, () -> json(post("/api/auth/register"),
+						"{\"username\":\"perf-new-" + sequence.incrementAndGet() + "\",\"password\":\"" + PASSWORD + "\"}")),
+				new Endpoint("auth.login", 1, 1, () -> json(post("/api/auth/login"),
+						"{\"username\":\"" + OWNER + "\",\"password\":\"" + PASSWORD + "\"}")),
+				new Endpoint("auth.me", 1, 1, () -> authorized(get("/api/auth/me"))),
+				new Endpoint("auth.user", 1, 1, () -> authorized(get("/api/auth/" + ownerId))),
+				new Endpoint("auth.logout", 1, 1, () -> post("/api/auth/logout")
+						.header("Authorization", "Bearer " + jwtUtil.generateToken(OWNER))),
+				new Endpoint("auth.logout-all", 1, 1, () -> {
+					// 用另一個使用者，避免撤銷之後的請求使用的 token
+					String username = createUser("perf-logout-" + sequence.incrementAndGet()).getUsername();
+					return post("/api/auth/logout-all").header("Authorization", "Bearer " + jwtUtil.generateToken(username));
+				}),
+
+				// Task API
+				new Endpoint("tasks.created", 5, 1100, () -> authorized(get("/api/tasks"))),
+				new Endpoint("tasks.mode-personal", 2, 110, () -> authorized(get("/api/tasks").param("mode", "personal"))),
+				new Endpoint("tasks.mode-all", 5, 1100, () -> authorized(get("/api/tasks").param("mode", "all"))),
+				new Endpoint("tasks.all", 5, 1100, () -> authorized(get("/api/tasks/all"))),
+				new Endpoint("tasks.all-archived", 6, 1150,
+						() -> authorized(get("/api/tasks/all").param("includeArchived", "true"))),
+				new Endpoint("tasks.all-fields", 4, 1950,
+						() -> authorized(get("/api/tasks/all").param("fields", "id,title,status,team"))),
+				new Endpoint("tasks.personal", 2, 110, () -> authorized(get("/api/tasks/personal"))),
+				new Endpoint("tasks.search", 6, 100, () -> authorized(get("/api/tasks/search")
+						.param("status", "todo").param("teamId", teamId.toString()))),
+				new Endpoint("tasks.assigned", 2, 60, () -> authorized(get("/api/tasks/assigned"))),
+				new Endpoint("tasks.create", 5, 10, () -> json(authorized(post("/api/tasks")), "{\"title\":\"perf personal\"}")),
+				new Endpoint("tasks.create-team", 6, 20, () -> json(authorized(post("/api/tasks")
+						.param("teamId", teamId.toString())), "{\"title\":\"perf team\"}")),
+				new Endpoint("tasks.update", 3, 15, () -> json(authorized(put("/api/tasks/" + teamTaskId)),
+						"{\"title\":\"perf renamed " + sequence.incrementAndGet() + "\",\"status\":\"todo\"}")),
+				new Endpoint("tasks.move", 3, 15, () -> json(authorized(put("/api/tasks/" + teamTaskId + "/move")),
+						"{\"status\":\"in-progress\"}")),
+				new Endpoint("tasks.delete", 2, 5, () -> {
+					Task task = new Task();
+					task.setTitle("perf delete");
+					return authorized(delete("/api/tasks/" + taskService.createTask(OWNER, teamId, task).getId()));
+				}),
+				new Endpoint("tasks.activity", 4, 51, () -> authorized(get("/api/tasks/" + teamTaskId + "/activity"))),
+
+				// Team API
+				new Endpoint("teams.test", 0, 0, () -> authorized(get("/api/teams/test"))),
+				new Endpoint("teams.create", 3, 5, () -> json(authorized(post("/api/teams")),
+						"{\"name\":\"perf team " + sequence.incrementAndGet() + "\"}")),
+				new Endpoint("teams.list", 2, 20, () -> authorized(get("/api/teams"))),
+				new Endpoint("teams.get", 4, 20, () -> authorized(get("/api/teams/" + teamId))),
+				new Endpoint("teams.members", 4, 20, () -> authorized(get("/api/teams/" + teamId + "/members"))),
+				new Endpoint("teams.invite", 6, 10, () -> {
+					String username = createUser("perf-invitee-" + sequence.incrementAndGet()).getUsername();
+					return json(authorized(post("/api/teams/" + teamId + "/members")),
+							"{\"username\":\"" + username + "\"}");
+				}),
+				new Endpoint("teams.tasks-cold", 4, 210, () -> {
+					teamBoardReader.invalidate(teamId);
+					return authorized(get("/api/teams/" + teamId + "/tasks"));
+				}),
+				new Endpoint("teams.tasks-warm", 0, 0, () -> authorized(get("/api/teams/" + teamId + "/tasks"))),
+				new Endpoint("teams.tasks-archived", 3, 50,
+						() -> authorized(get("/api/teams/" + teamId + "/tasks").param("includeArchived", "true"))),
+				new Endpoint("teams.tasks-fields", 4, 170, () -> authorized(get("/api/teams/" + teamId + "/tasks")
+						.param("fields", "id,title,status,assignee,dueDate"))),
+				new Endpoint("teams.create-task", 7, 30, () -> json(authorized(post("/api/teams/" + teamId + "/tasks")),
+						"{\"title\":\"perf board task\"}")),
+				new Endpoint("teams.remove-member", 5, 10, () -> {
+					String username = createUser("perf-leaver-" + sequence.incrementAndGet()).getUsername();
+					Long memberId = teamService.inviteMember(OWNER, teamId, username).getId();
+					return authorized(delete("/api/teams/" + teamId + "/members/" + memberId));
+				}),
+				new Endpoint("teams.delete", 6, 10, () -> {
+					Long emptyTeam = teamService.createTeam(OWNER, "perf doomed " + sequence.incrementAndGet(), null).getId();
+					return authorized(delete("/api/teams/" + emptyTeam));
+				}),
+
+				// Job API
+				new Endpoint("jobs.get", 1, 1, () -> {
+					Long emptyTeam = teamService.createTeam(OWNER, "perf job " + sequence.incrementAndGet(), null).getId();
+					return authorized(get("/api/jobs/" + teamService.deleteTeam(OWNER, emptyTeam).getId()));
+				}));
+	}
+
+	// 不計第一次呼叫，再呼叫 samples 次取中位數
+	private double medianLatencyMs(Endpoint endpoint) throws Exception {
+		double[] timings = new double[samples];
+		for (int i = 0; i < samples; i++) {
+			MockHttpServletRequestBuilder request = endpoint.request().create();
+			long start = System.nanoTime();
+			mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+			timings[i] = (System.nanoTime() - start) / 1_000_000.0;
+		}
+		Arrays.sort(timings);
+		return timings[samples / 2];
+	}
+
+	private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+		return request.header("Authorization", "Bearer " + token);
+	}
+
+	private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+		return request.contentType(MediaType.APPLICATION_JSON).content(body);
+	}
+
+	// 一位擁有者、數個各有多位成員的團隊，每個團隊上百個任務，另有個人任務與已歸檔的任務
+	private void seed() {
+		passwordHash = passwordEncoder.encode(PASSWORD);
+		User owner = createUser(OWNER);
+		ownerId = owner.getId();
+		token = jwtUtil.generateToken(OWNER);
+
+		List<User> members = new ArrayList<>();
+		for (int i = 0; i < MEMBERS_PER_TEAM; i++) {
+			members.add(createUser("perf-member-" + i));
+		}
+
+		String[] statuses = { "todo", "in-progress", "done" };
+		LocalDateTime now = LocalDateTime.now();
+		List<Object[]> tasks = new ArrayList<>();
+		for (int t = 0; t < TEAMS; t++) {
+			Long id = teamService.createTeam(OWNER, "perf team " + t, "seeded").getId();
+			if (teamId == null) {
+				teamId = id;
+			}
+			for (User member : members) {
+				teamService.inviteMember(OWNER, id, member.getUsername());
+			}
+			String[] ranks = FractionalIndex.evenlySpaced(TASKS_PER_TEAM);
+			for (int i = 0; i < TASKS_PER_TEAM; i++) {
+				User assignee = members.get(i % members.size());
+				String status = statuses[i % statuses.length];
+				tasks.add(new Object[] { "team " + t + " task " + i, "seeded task", status, assignee.getUsername(),
+						ownerId, id, assignee.getId(), Timestamp.valueOf(now.plusDays(i % 30 - 10)), ranks[i],
+						"done".equals(status) ? Timestamp.valueOf(now.minusDays(1)) : null });
+			}
+		}
+		String[] personalRanks = FractionalIndex.evenlySpaced(PERSONAL_TASKS);
+		for (int i = 0; i < PERSONAL_TASKS; i++) {
+			String status = statuses[i % statuses.length];
+			tasks.add(new Object[] { "personal task " + i, null, status, OWNER, ownerId, null, ownerId,
+					Timestamp.valueOf(now.plusDays(i % 14 - 7)), personalRanks[i],
+					"done".equals(status) ? Timestamp.valueOf(now.minusDays(1)) : null });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO tasks (title, description, status, assignee, user_id, team_id, "
+				+ "assigned_to, due_date, rank_key, completed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", tasks);
+
+		List<Object[]> archived = new ArrayList<>();
+		for (int i = 0; i < ARCHIVED_TASKS; i++) {
+			Timestamp completed = Timestamp.valueOf(now.minusDays(60 + i));
+			archived.add(new Object[] { 1_000_000L + i, "archived task " + i, "done", OWNER, ownerId, i % 2 == 0 ? teamId : null,
+					ownerId, completed, Timestamp.valueOf(now) });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO tasks_archive (id, title, status, assignee, user_id, team_id, "
+				+ "assigned_to, completed_at, archived_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", archived);
+
+		// 經由 API 建立一個團隊任務，讓它有操作紀錄
+		Task task = new Task();
+		task.setTitle("perf tracked");
+		teamTaskId = teamService.createTeamTask(OWNER, teamId, task).getId();
+	}
+
+	private User createUser(String username) {
+		return userRepository.findByUsername(username).orElseGet(() -> {
+			User user = new User();
+			user.setUsername(username);
+			user.setEmail(username + "@example.com");
+			user.setPassword(passwordHash);
+			return userRepository.save(user);
+		});
+	}
+
+	private static Properties loadBaselines() throws IOException {
+		Properties baselines = new Properties();
+		try (InputStream in = EndpointBudgetTests.class.getResourceAsStream(BASELINE_RESOURCE)) {
+			if (in != null) {
+				baselines.load(in);
+			}
+		}
+		return baselines;
+	}
+
+	private static void writeBaselines(Properties measured) throws IOException {
+		Files.createDirectories(BASELINE_FILE.getParent());
+		// 依 key 排序，方便比較差異
+		StringBuilder content = new StringBuilder("# EndpointBudgetTests 的延遲基準（中位數相對於 " + CALIBRATION_ENDPOINT
+				+ " 的倍數），以 -Dperf.record=true 重新產生\n");
+		new TreeMap<>(measured).forEach((id, ratio) -> content.append(id).append('=').append(ratio).append('\n'));
+		try (OutputStream out = Files.newOutputStream(BASELINE_FILE)) {
+			out.write(content.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.backend.dto.TaskFilter;
+import com.example.backend.model.Task;
+import com.example.backend.model.Team;
+import com.example.backend.model.TeamMember;
+import com.example.backend.model.User;
+import com.example.backend.service.TaskService;
+import com.example.backend.support.SqlCapture;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 以 H2 的 EXPLAIN 檢查任務篩選產生的查詢都使用索引，而不是掃描整張 tasks 表。
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(SqlCapture.Config.class)
+class TaskQueryPlanTests {
+
+	@Autowired
+	private SqlCapture sqlCapture;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TeamRepository teamRepository;
+
+	@Autowired
+	private TeamMemberRepository teamMemberRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long teamId;
+
+	// 用戶同時有個人範圍與團隊範圍，兩種查詢都會執行
+	@BeforeEach
+	void createUserAndTeam() {
+		User user = userRepository.findByUsername("plan-user").orElseGet(() -> {
+			User created = new User();
+			created.setUsername("plan-user");
+			return userRepository.save(created);
+		});
+
+		Team team = new Team();
+		team.setName("plan-team");
+		team.setCreatedBy(user);
+		team = teamRepository.save(team);
+		teamId = team.getId();
+
+		TeamMember member = new TeamMember();
+		member.setTeam(team);
+		member.setUser(user);
+		member.setRole(TeamMember.Role.OWNER);
+		teamMemberRepository.save(member);
+	}
+
+	@Test
+	void filtersUseIndexes() {
+		assertIndexed(filter -> filter.setStatus(List.of("todo", "doing")));
+		assertIndexed(filter -> filter.setAssignee("plan-user"));
+		assertIndexed(filter -> filter.setTeamId(List.of(teamId)));
+		assertIndexed(filter -> {
+			filter.setDueFrom(LocalDateTime.now());
+			filter.setDueTo(LocalDateTime.now().plusDays(7));
+		});
+		assertIndexed(filter -> filter.setOverdue(true));
+		assertIndexed(filter -> filter.setQ("Fix"));
+	}
+
+	@Test
+	void sparseFieldsSelectOnlyRequestedColumns() {
+		Task task = new Task();
+		task.setTitle("lean card");
+		task.setDescription("long description");
+		taskService.createTask("plan-user", teamId, task);
+
+		sqlCapture.clear();
+		List<Map<String, Object>> rows = taskService.getTaskFields("plan-user", TaskService.ListScope.ACCESSIBLE,
+				TaskField.parse("title,status,team"), false);
+
+		Map<String, Object> row = rows.stream().filter(r -> "lean card".equals(r.get("title"))).findFirst().orElseThrow();
+		assertEquals(List.of("id", "title", "status", "team"), List.copyOf(row.keySet()));
+		assertEquals(Map.of("id", teamId, "name", "plan-team"), row.get("team"));
+
+		List<String> taskQueries = sqlCapture.statements().stream()
+				.filter(sql -> sql.startsWith("select") && sql.contains(" from tasks "))
+				.toList();
+		assertFalse(taskQueries.isEmpty(), "no task query captured");
+		for (String sql : taskQueries) {
+			assertFalse(sql.contains("description") || sql.contains("assignee") || sql.contains("rank_key"), sql);
+			assertFalse(explain(sql).contains("TASKS.tableScan"), "full scan for " + sql);
+		}
+	}
+
+	private void assertIndexed(Consumer<TaskFilter> setup) {
+		TaskFilter filter = new TaskFilter();
+		setup.accept(filter);
+		sqlCapture.clear();
+		taskService.searchTasks("plan-user", filter, 50);
+
+		List<String> taskQueries = sqlCapture.statements().stream()
+				.filter(sql -> sql.startsWith("select") && sql.contains(" from tasks "))
+				.toList();
+		assertFalse(taskQueries.isEmpty(), "no task query captured");
+		for (String sql : taskQueries) {
+			String plan = explain(sql);
+			assertTrue(plan.contains("FROM \"PUBLIC\".\"TASKS\""), "unexpected plan for " + sql + "\n" + plan);
+			assertFalse(plan.contains("TASKS.tableScan"), "full scan for " + sql + "\n" + plan);
+		}
+	}
+
+	private String explain(String sql) {
+		return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class BulkheadTests {
+
+	@Test
+	void queuedRequestGetsPermitWhenReleased() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(1, 10, TimeUnit.SECONDS.toNanos(5));
+		assertNull(bulkhead.acquire());
+		assertEquals(1, bulkhead.active());
+
+		CompletableFuture<Bulkhead.Rejection> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return bulkhead.acquire();
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		while (bulkhead.queued() == 0) {
+			Thread.sleep(5);
+		}
+		bulkhead.release(TimeUnit.MILLISECONDS.toNanos(1));
+		assertNull(waiting.get(5, TimeUnit.SECONDS));
+		assertEquals(0, bulkhead.queued());
+	}
+
+	@Test
+	void rejectsWhenQueueIsFull() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(1, 0, TimeUnit.SECONDS.toNanos(5));
+		assertNull(bulkhead.acquire());
+		assertEquals(Bulkhead.Rejection.QUEUE_FULL, bulkhead.acquire());
+	}
+
+	@Test
+	void shedsImmediatelyWhenPredictedWaitIsTooLong() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(1, 10, TimeUnit.MILLISECONDS.toNanos(50));
+		assertNull(bulkhead.acquire());
+		bulkhead.release(TimeUnit.SECONDS.toNanos(1));
+		assertNull(bulkhead.acquire());
+
+		long start = System.nanoTime();
+		assertEquals(Bulkhead.Rejection.PREDICTED_WAIT, bulkhead.acquire());
+		// 不需要等到 maxWait 才拒絕
+		assertEquals(0, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / 50);
+	}
+
+	@Test
+	void poolSizeUsesSmallestShardPool() {
+		ShardRoutingDataSource routing = new ShardRoutingDataSource();
+		routing.setTargetDataSources(Map.of(0, pool(8), 1, pool(4)));
+		routing.afterPropertiesSet();
+		assertEquals(4, BulkheadFilter.poolSize(routing));
+		assertEquals(8, BulkheadFilter.poolSize(pool(8)));
+	}
+
+	@Test
+	void timesOutWhenNoPermitFreesUp() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(1, 10, TimeUnit.MILLISECONDS.toNanos(20));
+		assertNull(bulkhead.acquire());
+		assertEquals(Bulkhead.Rejection.TIMEOUT, bulkhead.acquire());
+		assertEquals(0, bulkhead.queued());
+	}
+
+	private static HikariDataSource pool(int size) {
+		HikariDataSource pool = new HikariDataSource();
+		pool.setMaximumPoolSize(size);
+		return pool;
+	}
+
+}
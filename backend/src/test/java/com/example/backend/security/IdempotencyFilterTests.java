@@ -0,0 +1,131 @@
+package com.example.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.IdempotencyStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@AutoConfigureMockMvc
+class IdempotencyFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Test
+	@WithMockUser(username = "idem-user")
+	void replaysOriginalResponseForRetriedCreate() throws Exception {
+		User user = new User();
+		user.setUsername("idem-user");
+		user = userRepository.save(user);
+
+		String first = mockMvc.perform(post("/api/tasks")
+				.header(IdempotencyFilter.HEADER, "retry-1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"title\":\"once\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		String second = mockMvc.perform(post("/api/tasks")
+				.header(IdempotencyFilter.HEADER, "retry-1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"title\":\"once\"}"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Idempotent-Replayed", "true"))
+				.andReturn().getResponse().getContentAsString();
+
+		assertEquals(first, second);
+		assertEquals(1, taskRepository.findByUser(user).size());
+
+		mockMvc.perform(post("/api/tasks")
+				.header(IdempotencyFilter.HEADER, "retry-1")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"title\":\"different\"}"))
+				.andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	void bufferedBodySupportsNonBlockingReads() throws Exception {
+		byte[] body = "{\"title\":\"async\"}".getBytes(StandardCharsets.UTF_8);
+		ServletInputStream in = new IdempotencyFilter.CachedBodyRequest(new MockHttpServletRequest(), body)
+				.getInputStream();
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+		List<String> events = new ArrayList<>();
+		in.setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() throws IOException {
+				events.add("data");
+				while (in.isReady() && !in.isFinished()) {
+					read.write(in.read());
+				}
+			}
+
+			@Override
+			public void onAllDataRead() {
+				events.add("done");
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				events.add("error");
+			}
+		});
+
+		assertEquals(List.of("data", "done"), events);
+		assertArrayEquals(body, read.toByteArray());
+	}
+
+	@Test
+	void inFlightKeysAreNeverEvicted() {
+		IdempotencyStore store = new IdempotencyStore(1);
+		ReflectionTestUtils.setField(store, "ttlMs", 60_000L);
+		IdempotencyStore.Claim first = store.claim("first", "fp");
+		IdempotencyStore.Claim second = store.claim("second", "fp");
+		assertTrue(first.owner());
+		assertTrue(second.owner());
+
+		// 超過上限但兩個都還在執行中，重複請求仍然等待原本的執行
+		assertFalse(store.claim("first", "fp").owner());
+
+		IdempotencyStore.StoredResponse response = new IdempotencyStore.StoredResponse(200, null, new byte[0]);
+		store.complete("first", first.entry(), response);
+		store.claim("third", "fp");
+		assertFalse(store.claim("second", "fp").owner());
+		assertTrue(store.claim("first", "fp").owner());
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.example.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class TokenBucketTests {
+
+	@Test
+	void allowsBurstThenRefillsAtRate() {
+		long start = 0;
+		TokenBucket bucket = new TokenBucket(3, 2, start);
+		assertEquals(0, bucket.tryAcquire(start));
+		assertEquals(0, bucket.tryAcquire(start));
+		assertEquals(0, bucket.tryAcquire(start));
+
+		long wait = bucket.tryAcquire(start);
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(500), wait);
+
+		assertEquals(0, bucket.tryAcquire(start + wait));
+		assertTrue(bucket.tryAcquire(start + wait) > 0);
+	}
+
+	@Test
+	void becomesIdleOnceFullyRefilled() {
+		TokenBucket bucket = new TokenBucket(2, 1, 0);
+		bucket.tryAcquire(0);
+		assertFalse(bucket.isIdle(TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(5)));
+		assertTrue(bucket.isIdle(TimeUnit.SECONDS.toNanos(7), TimeUnit.SECONDS.toNanos(5)));
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.example.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+
+// 背景載入關閉，測試中直接呼叫 refresh，不與 refresher 執行緒同時修改狀態
+@SpringBootTest(properties = "auth.revocation.refresh-ms=3600000")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@AutoConfigureMockMvc
+class TokenRevocationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TokenRevocationList tokenRevocationList;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void logoutRevokesOnlyTheCurrentToken() throws Exception {
+		String first = token("/api/auth/register", "revoke-user");
+		String second = token("/api/auth/login", "revoke-user");
+
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + first))
+				.andExpect(status().isOk());
+		mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + first))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + first))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + second))
+				.andExpect(status().isOk());
+		// 已撤銷的 token 不能再用來登出
+		mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + first))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutAllRevokesEveryIssuedToken() throws Exception {
+		String first = token("/api/auth/register", "revoke-all-user");
+		String second = token("/api/auth/login", "revoke-all-user");
+		String other = token("/api/auth/register", "revoke-bystander");
+
+		mockMvc.perform(post("/api/auth/logout-all").header("Authorization", "Bearer " + second))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + first))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + second))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + other))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void loginInTheSameSecondAsLogoutAllIsAccepted() throws Exception {
+		String before = token("/api/auth/register", "relogin-user");
+		mockMvc.perform(post("/api/auth/logout-all").header("Authorization", "Bearer " + before))
+				.andExpect(status().isOk());
+		String after = token("/api/auth/login", "relogin-user");
+
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + before))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + after))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void refreshLoadsRowsCommittedOutOfOrder() throws Exception {
+		String victim = token("/api/auth/register", "gap-user");
+		// 先載入一筆，讓游標離開初始位置
+		String first = token("/api/auth/register", "gap-first");
+		mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + first))
+				.andExpect(status().isOk());
+		ReflectionTestUtils.invokeMethod(tokenRevocationList, "refresh");
+		long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM revoked_tokens", Long.class);
+
+		LocalDateTime now = LocalDateTime.now();
+		String insert = "INSERT INTO revoked_tokens (id, token_id, username, revoked_at, expires_at) VALUES (?, ?, ?, ?, ?)";
+		try {
+			// id 較大的列先提交
+			jdbcTemplate.update(insert, maxId + 2, "other-jti", "gap-other", now, now.plusHours(1));
+			ReflectionTestUtils.invokeMethod(tokenRevocationList, "refresh");
+			mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + victim))
+					.andExpect(status().isOk());
+
+			jdbcTemplate.update(insert, maxId + 1, null, "gap-user", now.plusMinutes(1), now.plusHours(1));
+			ReflectionTestUtils.invokeMethod(tokenRevocationList, "refresh");
+			mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + victim))
+					.andExpect(status().isUnauthorized());
+		} finally {
+			jdbcTemplate.update("DELETE FROM revoked_tokens WHERE id > ?", maxId);
+		}
+	}
+
+	@Test
+	void bloomFilterHasNoFalseNegatives() {
+		BloomFilter filter = new BloomFilter(1000, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			filter.put("jti:" + i);
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(filter.mightContain("jti:" + i));
+			if (filter.mightContain("other:" + i)) {
+				falsePositives++;
+			}
+		}
+		// 預期約 1%，留一些餘裕
+		assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+		assertFalse(new BloomFilter(1000, 0.01).mightContain("jti:0"));
+	}
+
+	private String token(String path, String username) throws Exception {
+		String body = mockMvc.perform(post(path)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"" + username + "\",\"password\":\"secret\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("token").asText();
+	}
+}
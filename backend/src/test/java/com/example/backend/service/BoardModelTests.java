@@ -0,0 +1,66 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+class BoardModelTests {
+
+	@Test
+	void rendersColumnsInStatusThenRankOrder() {
+		BoardModel board = new BoardModel(Set.of("alice"));
+		board.upsert(3, "todo", "V", json(3));
+		board.upsert(1, "todo", "a", json(1));
+		board.upsert(2, "done", "V", json(2));
+		board.upsert(4, "todo", null, json(4));
+		board.upsert(5, "todo", "V", json(5));
+
+		assertEquals("[{\"id\":2},{\"id\":4},{\"id\":3},{\"id\":5},{\"id\":1}]", render(board));
+		assertTrue(board.isMember("alice"));
+	}
+
+	@Test
+	void upsertMovesTaskAndTracksBytes() {
+		BoardModel board = new BoardModel(Set.of());
+		assertEquals("[]", render(board));
+
+		long added = board.upsert(1, "todo", "V", json(1));
+		board.upsert(2, "todo", "k", json(2));
+		assertEquals(json(1).length + BoardModel.ENTRY_OVERHEAD, added);
+
+		// 換欄位：舊欄位移除、新欄位插入，用量不變
+		assertEquals(0, board.upsert(1, "done", "V", json(1)));
+		assertEquals("[{\"id\":1},{\"id\":2}]", render(board));
+
+		assertEquals(-added, board.remove(1));
+		assertEquals(0, board.remove(1));
+		assertEquals("[{\"id\":2}]", render(board));
+		assertEquals(1, board.taskCount());
+		assertEquals(added, board.bytes());
+	}
+
+	@Test
+	void growsColumnsBeyondInitialCapacity() {
+		BoardModel board = new BoardModel(Set.of());
+		StringBuilder expected = new StringBuilder("[");
+		for (int i = 0; i < 100; i++) {
+			board.upsert(i, "todo", String.format("%03d", 99 - i), json(i));
+		}
+		for (int i = 99; i >= 0; i--) {
+			expected.append("{\"id\":").append(i).append('}').append(i > 0 ? "," : "]");
+		}
+		assertEquals(expected.toString(), render(board));
+	}
+
+	private static byte[] json(long id) {
+		return ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String render(BoardModel board) {
+		return new String(board.render(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,67 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class FractionalIndexTests {
+
+	@Test
+	void generatesKeysStrictlyBetweenNeighbours() {
+		List<String> keys = new ArrayList<>();
+		keys.add(FractionalIndex.between(null, null));
+		Random random = new Random(42);
+		for (int i = 0; i < 2_000; i++) {
+			int slot = random.nextInt(keys.size() + 1);
+			String before = slot == 0 ? null : keys.get(slot - 1);
+			String after = slot == keys.size() ? null : keys.get(slot);
+			String key = FractionalIndex.between(before, after);
+			if (before != null) {
+				assertTrue(before.compareTo(key) < 0, before + " < " + key);
+			}
+			if (after != null) {
+				assertTrue(key.compareTo(after) < 0, key + " < " + after);
+			}
+			assertFalse(key.endsWith("0"));
+			keys.add(slot, key);
+		}
+	}
+
+	@Test
+	void evenlySpacedKeysAreSortedAndShort() {
+		String[] keys = FractionalIndex.evenlySpaced(500);
+		assertEquals(500, keys.length);
+		for (int i = 1; i < keys.length; i++) {
+			assertTrue(keys[i - 1].compareTo(keys[i]) < 0);
+			assertTrue(keys[i].length() <= 2);
+		}
+		String inserted = FractionalIndex.between(keys[0], keys[1]);
+		assertTrue(keys[0].compareTo(inserted) < 0 && inserted.compareTo(keys[1]) < 0);
+	}
+
+	@Test
+	void appendedKeysStayShortAndSingleCase() {
+		Random random = new Random(7);
+		String key = null;
+		for (int i = 0; i < 10_000; i++) {
+			String next = FractionalIndex.after(key, 1 + random.nextInt(35));
+			if (key != null) {
+				assertTrue(key.compareTo(next) < 0, key + " < " + next);
+			}
+			assertFalse(next.endsWith("0"));
+			assertEquals(next.toLowerCase(), next);
+			key = next;
+		}
+		// 長度用完時才加倍，遠低於預設的 ranking.max-key-length
+		assertTrue(key.length() <= 8, key);
+		assertEquals("i6", FractionalIndex.after("i5", 1));
+		assertEquals("zz01", FractionalIndex.after("zz", 1));
+	}
+
+}
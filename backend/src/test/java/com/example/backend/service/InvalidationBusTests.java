@@ -0,0 +1,110 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.backend.DemoApplication;
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+
+import java.util.function.Supplier;
+
+// 兩個 application context 共用同一個 H2 資料庫，模擬兩個 instance
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:bustest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"cache.bus.publish-interval-ms=20",
+		"cache.bus.poll-interval-ms=20"
+})
+@TestPropertySource(locations = "classpath:application-test.properties")
+class InvalidationBusTests {
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void boardCachedOnAnotherInstanceFollowsWrites() throws Exception {
+		// 資料表由這個 context 建立，另一個 instance 直接使用
+		try (ConfigurableApplicationContext other = new SpringApplicationBuilder(DemoApplication.class).properties(
+				"spring.datasource.url=jdbc:h2:mem:bustest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+				"spring.jpa.hibernate.ddl-auto=none",
+				"server.port=0",
+				"jobs.enabled=false",
+				"archive.enabled=false",
+				"cache.bus.publish-interval-ms=20",
+				"cache.bus.poll-interval-ms=20").run()) {
+			followWrites(other);
+		}
+	}
+
+	private void followWrites(ConfigurableApplicationContext other) throws InterruptedException {
+		createUser("bus-owner");
+		createUser("bus-member");
+		Long teamId = teamService.createTeam("bus-owner", "bus team", null).getId();
+		Task task = new Task();
+		task.setTitle("first");
+		task = teamService.createTeamTask("bus-owner", teamId, task);
+
+		TeamService otherTeamService = other.getBean(TeamService.class);
+		TeamBoardReader otherBoards = other.getBean(TeamBoardReader.class);
+		assertTrue(board(otherTeamService, "bus-owner", teamId).contains("\"first\""));
+		// 建立任務的事件可能在載入期間才送達，這時看板不會放進快取，下一次讀取再載入
+		assertTrue(eventually(() -> {
+			board(otherTeamService, "bus-owner", teamId);
+			return otherBoards.cachedBoards() > 0;
+		}));
+		assertThrows(OperationDeniedException.class, () -> otherTeamService.getTeamTasks("bus-member", teamId, false));
+
+		// 任務異動：另一個 instance 快取中的看板直接更新
+		task.setTitle("renamed");
+		taskService.updateTask("bus-owner", task.getId(), task);
+		assertTrue(eventually(() -> board(otherTeamService, "bus-owner", teamId).contains("\"renamed\"")));
+		assertTrue(otherBoards.cachedBoards() > 0);
+
+		// 成員異動：另一個 instance 丟棄看板，重新載入後新成員可以讀取
+		teamService.inviteMember("bus-owner", teamId, "bus-member");
+		assertTrue(eventually(() -> {
+			try {
+				return board(otherTeamService, "bus-member", teamId).contains("\"renamed\"");
+			} catch (OperationDeniedException e) {
+				return false;
+			}
+		}));
+	}
+
+	private static String board(TeamService service, String username, Long teamId) {
+		return new String(service.getTeamTasks(username, teamId, false));
+	}
+
+	private static boolean eventually(Supplier<Boolean> condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.get()) {
+			if (System.currentTimeMillis() > deadline) {
+				return false;
+			}
+			Thread.sleep(20);
+		}
+		return true;
+	}
+
+	private void createUser(String username) {
+		if (userRepository.findByUsername(username).isEmpty()) {
+			User user = new User();
+			user.setUsername(username);
+			userRepository.save(user);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.backend.model.Job;
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest(properties = {
+		"jobs.workers=4",
+		"jobs.poll-interval-ms=50",
+		"jobs.backoff-ms=10",
+		"jobs.max-attempts=3"
+})
+@TestPropertySource(locations = "classpath:application-test.properties")
+class JobQueueTests {
+
+	@TestConfiguration
+	static class Handlers {
+
+		static final Map<Long, AtomicInteger> RUNS = new ConcurrentHashMap<>();
+
+		// 依 payload 決定前幾次執行失敗
+		@Bean
+		JobHandler flakyJob() {
+			return new JobHandler() {
+				@Override
+				public String type() {
+					return "test.flaky";
+				}
+
+				@Override
+				public String run(JobContext context) {
+					int run = RUNS.computeIfAbsent(context.getJobId(), id -> new AtomicInteger()).incrementAndGet();
+					context.progress(50);
+					if (run <= Integer.parseInt(context.getPayload())) {
+						throw new IllegalStateException("failure " + run);
+					}
+					return "ok after " + run;
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private JobQueue jobQueue;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TeamRepository teamRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void runsEachJobOnceAcrossWorkers() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			ids.add(jobQueue.enqueue("test.flaky", 0, "job-owner").getId());
+		}
+		for (Long id : ids) {
+			Job job = await(id);
+			assertEquals(Job.Status.SUCCEEDED, job.getStatus());
+			assertEquals(100, job.getProgress());
+			assertEquals(1, Handlers.RUNS.get(id).get());
+		}
+	}
+
+	@Test
+	void retriesWithBackoffThenFails() throws Exception {
+		Job recovered = await(jobQueue.enqueue("test.flaky", 2, "job-owner").getId());
+		assertEquals(Job.Status.SUCCEEDED, recovered.getStatus());
+		assertEquals(3, recovered.getAttempts());
+		assertEquals("ok after 3", recovered.getResult());
+
+		Job failed = await(jobQueue.enqueue("test.flaky", 5, "job-owner").getId());
+		assertEquals(Job.Status.FAILED, failed.getStatus());
+		assertEquals(3, failed.getAttempts());
+		assertTrue(failed.getError().contains("failure 3"));
+	}
+
+	@Test
+	void deletesTeamInBackground() throws Exception {
+		User owner = new User();
+		owner.setUsername("job-team-owner");
+		userRepository.save(owner);
+		Long teamId = teamService.createTeam("job-team-owner", "doomed", null).getId();
+		for (int i = 0; i < 3; i++) {
+			Task task = new Task();
+			task.setTitle("done " + i);
+			task.setStatus("done");
+			teamService.createTeamTask("job-team-owner", teamId, task);
+		}
+
+		Job job = await(teamService.deleteTeam("job-team-owner", teamId).getId());
+		assertEquals(Job.Status.SUCCEEDED, job.getStatus());
+		assertFalse(teamRepository.existsById(teamId));
+		assertEquals(0, taskRepository.countByTeamId(teamId));
+		assertTrue(taskService.getAccessibleTasks("job-team-owner", true).isEmpty());
+	}
+
+	@Test
+	void teamDeletionIsCancelledWhenTasksReopen() throws Exception {
+		User owner = new User();
+		owner.setUsername("job-reopen-owner");
+		userRepository.save(owner);
+		Long teamId = teamService.createTeam("job-reopen-owner", "reopened", null).getId();
+		Task task = new Task();
+		task.setTitle("reopened later");
+		task.setStatus("done");
+		task = teamService.createTeamTask("job-reopen-owner", teamId, task);
+
+		// 請求通過檢查後、工作執行前，任務被移回未完成
+		task.setStatus("todo");
+		taskService.updateTask("job-reopen-owner", task.getId(), task);
+		Job job = await(jobQueue.enqueue(TeamDeletionJob.TYPE,
+				Map.of("teamId", teamId, "username", "job-reopen-owner"), "job-reopen-owner").getId());
+
+		assertEquals(Job.Status.FAILED, job.getStatus());
+		assertEquals(1, job.getAttempts());
+		assertTrue(teamRepository.existsById(teamId));
+		assertEquals(1, taskRepository.countByTeamId(teamId));
+		assertEquals(1, teamService.getTeamMembers("job-reopen-owner", teamId, null, null).size());
+	}
+
+	private Job await(Long id) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (true) {
+			Job job = jobQueue.find(id).orElseThrow();
+			if (job.getStatus() == Job.Status.SUCCEEDED || job.getStatus() == Job.Status.FAILED
+					|| System.currentTimeMillis() > deadline) {
+				return job;
+			}
+			Thread.sleep(20);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.backend.model.Task;
+import com.example.backend.repository.TaskRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@SpringBootTest(properties = { "reminder.tick-ms=50", "reminder.wheel-size=64" })
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(ReminderSchedulerTests.InMemorySinkConfig.class)
+class ReminderSchedulerTests {
+
+	static class InMemoryReminderSink implements ReminderSink {
+		final List<DueReminder> received = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void remind(DueReminder reminder) {
+			received.add(reminder);
+		}
+	}
+
+	@TestConfiguration
+	static class InMemorySinkConfig {
+		@Bean
+		InMemoryReminderSink inMemoryReminderSink() {
+			return new InMemoryReminderSink();
+		}
+	}
+
+	@Autowired
+	private ReminderScheduler reminderScheduler;
+
+	@Autowired
+	private InMemoryReminderSink sink;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Test
+	void firesOnlyForCurrentDueDate() throws InterruptedException {
+		Task kept = new Task();
+		kept.setTitle("kept");
+		kept.setStatus("todo");
+		kept.setDueDate(LocalDateTime.now().plusNanos(300_000_000L));
+		kept = taskRepository.save(kept);
+		reminderScheduler.onTaskSaved(kept);
+
+		Task cleared = new Task();
+		cleared.setTitle("cleared");
+		cleared.setStatus("todo");
+		cleared.setDueDate(LocalDateTime.now().plusNanos(300_000_000L));
+		cleared = taskRepository.save(cleared);
+		reminderScheduler.onTaskSaved(cleared);
+		cleared.setDueDate(null);
+		reminderScheduler.onTaskSaved(cleared);
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (sink.received.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		Thread.sleep(200);
+
+		assertEquals(1, sink.received.size());
+		assertEquals(kept.getId(), sink.received.get(0).taskId());
+		assertEquals(0, reminderScheduler.getPendingCount());
+	}
+
+}
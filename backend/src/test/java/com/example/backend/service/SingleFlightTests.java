@@ -0,0 +1,100 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTests {
+
+	@Test
+	void concurrentCallersShareOneLoad() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			Future<String> leader = pool.submit(() -> singleFlight.execute("team-1", () -> {
+				loads.incrementAndGet();
+				started.countDown();
+				await(release);
+				return "board";
+			}, 5000));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			List<Future<String>> followers = new ArrayList<>();
+			for (int i = 0; i < 7; i++) {
+				followers.add(pool.submit(() -> singleFlight.execute("team-1", () -> {
+					loads.incrementAndGet();
+					return "other";
+				}, 5000)));
+			}
+			// 等 follower 都加入等待後才放行
+			while (singleFlight.getFollowers() < 7) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			assertEquals("board", leader.get(5, TimeUnit.SECONDS));
+			for (Future<String> follower : followers) {
+				assertEquals("board", follower.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(0.875, singleFlight.coalescingRatio(), 1e-9);
+		assertEquals(0, singleFlight.inFlightCount());
+	}
+
+	@Test
+	void followerGivesUpAfterTimeout() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Thread leader = new Thread(() -> {
+			try {
+				singleFlight.execute("slow", () -> {
+					started.countDown();
+					await(release);
+					return "late";
+				}, 5000);
+			} catch (TimeoutException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		leader.start();
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		assertThrows(TimeoutException.class, () -> singleFlight.execute("slow", () -> "fresh", 50));
+		assertEquals(1, singleFlight.getTimeouts());
+
+		release.countDown();
+		leader.join(5000);
+		// 載入完成後 key 已移除，下一次呼叫重新載入
+		assertEquals("fresh", singleFlight.execute("slow", () -> "fresh", 50));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
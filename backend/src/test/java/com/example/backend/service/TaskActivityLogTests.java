@@ -0,0 +1,50 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.TaskActivity;
+import com.example.backend.repository.TaskActivityRepository;
+
+import java.util.List;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class TaskActivityLogTests {
+
+	@Autowired
+	private TaskActivityLog taskActivityLog;
+
+	@Autowired
+	private TaskActivityRepository taskActivityRepository;
+
+	@Test
+	void flushesBufferedEventsAndPagesByKeyset() {
+		Task task = new Task();
+		task.setId(9001L);
+		task.setStatus("todo");
+		taskActivityLog.recordCreate(task, "alice");
+		task.setStatus("in-progress");
+		taskActivityLog.recordUpdate(task, "alice", "todo");
+		task.setStatus("done");
+		taskActivityLog.recordUpdate(task, "bob", "in-progress");
+		taskActivityLog.flush();
+
+		List<TaskActivity> firstPage = taskActivityRepository.findByTaskIdOrderByIdDesc(9001L, PageRequest.of(0, 2));
+		assertEquals(2, firstPage.size());
+		assertEquals("bob", firstPage.get(0).getActor());
+		assertEquals("done", firstPage.get(0).getToStatus());
+
+		List<TaskActivity> secondPage = taskActivityRepository.findByTaskIdAndIdLessThanOrderByIdDesc(
+				9001L, firstPage.get(1).getId(), PageRequest.of(0, 2));
+		assertEquals(1, secondPage.size());
+		assertEquals(TaskActivity.Action.CREATE, secondPage.get(0).getAction());
+	}
+
+}
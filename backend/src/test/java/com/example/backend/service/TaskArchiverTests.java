@@ -0,0 +1,101 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.backend.model.Job;
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@SpringBootTest(properties = {
+		"archive.enabled=false",
+		"archive.after-days=30",
+		"archive.batch-size=2"
+})
+@TestPropertySource(locations = "classpath:application-test.properties")
+class TaskArchiverTests {
+
+	@Autowired
+	private TaskArchiver taskArchiver;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void movesOldCompletedTasksToArchive() {
+		User owner = new User();
+		owner.setUsername("archive-owner");
+		userRepository.save(owner);
+		Long teamId = teamService.createTeam("archive-owner", "archive team", null).getId();
+
+		Task open = createTask(null, "open", "todo");
+		Task recent = createTask(null, "recent", "done");
+		Task old = createTask(null, "old", "done");
+		Task oldTeam = createTask(teamId, "old team", "done");
+		Task reopened = createTask(null, "reopened", "done");
+		for (Task task : List.of(old, oldTeam, reopened)) {
+			jdbcTemplate.update("UPDATE tasks SET completed_at = ? WHERE id = ?",
+					Timestamp.valueOf(LocalDateTime.now().minusDays(40)), task.getId());
+		}
+
+		// 離開 done 時清除完成時間
+		reopened.setStatus("todo");
+		assertNull(taskService.updateTask("archive-owner", reopened.getId(), reopened).getCompletedAt());
+		assertNotNull(taskRepository.findById(recent.getId()).orElseThrow().getCompletedAt());
+
+		taskArchiver.run(new JobContext(new Job(), percent -> {
+		}));
+
+		assertTrue(taskRepository.findById(old.getId()).isEmpty());
+		assertTrue(taskRepository.findById(oldTeam.getId()).isEmpty());
+		assertEquals(List.of(open.getId(), recent.getId(), reopened.getId()),
+				ids(taskService.getAccessibleTasks("archive-owner", false)));
+
+		List<Task> all = taskService.getAccessibleTasks("archive-owner", true);
+		assertEquals(List.of(open.getId(), recent.getId(), old.getId(), oldTeam.getId(), reopened.getId()), ids(all));
+		assertTrue(all.stream().filter(Task::isArchived).allMatch(t -> t.getCompletedAt() != null));
+		assertEquals(2, all.stream().filter(Task::isArchived).count());
+
+		String board = new String(teamService.getTeamTasks("archive-owner", teamId, false));
+		String withArchived = new String(teamService.getTeamTasks("archive-owner", teamId, true));
+		assertEquals("[]", board);
+		assertTrue(withArchived.contains("\"archived\":true") && withArchived.contains("old team"));
+	}
+
+	private Task createTask(Long teamId, String title, String status) {
+		Task task = new Task();
+		task.setTitle(title);
+		task.setStatus(status);
+		return taskService.createTask("archive-owner", teamId, task);
+	}
+
+	private static List<Long> ids(List<Task> tasks) {
+		return tasks.stream().map(Task::getId).toList();
+	}
+}
@@ -0,0 +1,272 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.dto.TaskFilter;
+import com.example.backend.model.Task;
+import com.example.backend.model.TaskActivity;
+import com.example.backend.model.User;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.sharding.ShardRouter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class TaskServiceTests {
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private ShardRouter shardRouter;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TeamService teamService;
+
+	@Autowired
+	private TeamBoardReader teamBoardReader;
+
+	@Autowired
+	private TaskRanking taskRanking;
+
+	@Autowired
+	private TaskActivityLog taskActivityLog;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void readsDoNotFlushChanges() {
+		Task task = createTask("tx-reader", "original");
+
+		shardRouter.readOnShard(0, () -> {
+			assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+			taskRepository.findById(task.getId()).orElseThrow().setTitle("changed");
+			return null;
+		});
+
+		assertEquals("original", taskRepository.findById(task.getId()).orElseThrow().getTitle());
+	}
+
+	@Test
+	void rejectedMoveRollsBackWholeOperation() {
+		Task first = createTask("tx-mover", "first");
+		Task second = createTask("tx-mover", "second");
+		Task moved = createTask("tx-mover", "moved");
+
+		// after 排在 before 之後，位置不合法；已套用的狀態變更必須一併回滾
+		assertThrows(IllegalArgumentException.class,
+				() -> taskService.moveTask("tx-mover", moved.getId(), "done", second.getId(), first.getId()));
+
+		assertEquals("todo", taskRepository.findById(moved.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void moveBetweenDuplicateKeysRebalancesColumn() {
+		Task first = createTask("tx-duplicate", "first");
+		Task second = createTask("tx-duplicate", "second");
+		Task moved = createTask("tx-duplicate", "moved");
+		// 並行新增可能產生相同的 key
+		Task stored = taskRepository.findById(second.getId()).orElseThrow();
+		stored.setRank(taskRepository.findById(first.getId()).orElseThrow().getRank());
+		taskRepository.save(stored);
+
+		taskService.moveTask("tx-duplicate", moved.getId(), null, first.getId(), second.getId());
+
+		String firstRank = taskRepository.findById(first.getId()).orElseThrow().getRank();
+		String movedRank = taskRepository.findById(moved.getId()).orElseThrow().getRank();
+		String secondRank = taskRepository.findById(second.getId()).orElseThrow().getRank();
+		assertTrue(firstRank.compareTo(movedRank) < 0 && movedRank.compareTo(secondRank) < 0);
+	}
+
+	@Test
+	void rebalanceKeepsConcurrentEdits() {
+		Task first = createTask("tx-rebalance", "first");
+		Task second = createTask("tx-rebalance", "second");
+		String duplicate = taskRepository.findById(first.getId()).orElseThrow().getRank();
+		Task stored = taskRepository.findById(second.getId()).orElseThrow();
+		stored.setRank(duplicate);
+		taskRepository.save(stored);
+
+		TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+		concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		shardRouter.onShard(0, () -> {
+			// 重新平衡的交易先讀到任務，另一個交易接著修改並提交
+			taskRepository.findById(second.getId()).orElseThrow();
+			concurrent.executeWithoutResult(status -> {
+				Task edited = taskRepository.findById(second.getId()).orElseThrow();
+				edited.setTitle("edited");
+				edited.setStatus("done");
+				taskRepository.save(edited);
+			});
+			taskRanking.rebalanceAll();
+			return null;
+		});
+
+		Task result = taskRepository.findById(second.getId()).orElseThrow();
+		assertEquals("edited", result.getTitle());
+		assertEquals("done", result.getStatus());
+		// 已移到其他欄位，不套用原欄位的 key
+		assertEquals(duplicate, result.getRank());
+	}
+
+	@Test
+	void assignedTasksArePagedByDueDateThenUndated() {
+		LocalDateTime base = LocalDateTime.of(2030, 1, 1, 9, 0);
+		createUser("tx-owner");
+		createUser("tx-assignee");
+		Long teamId = teamService.createTeam("tx-owner", "assigned team", null).getId();
+		teamService.inviteMember("tx-owner", teamId, "tx-assignee");
+		Task undated = createAssigned("tx-owner", teamId, "undated", "tx-assignee", null);
+		Task later = createAssigned("tx-owner", teamId, "later", "tx-assignee", base.plusDays(2));
+		Task sooner = createAssigned("tx-owner", teamId, "sooner", "tx-assignee", base.plusDays(1));
+		createAssigned("tx-owner", teamId, "free text", "somebody else", base);
+		// 別人的個人任務只對建立者可見
+		createAssigned("tx-owner", null, "private", "tx-assignee", base);
+
+		assertEquals("tx-assignee",
+				taskRepository.findById(sooner.getId()).orElseThrow().getAssignedTo().getUsername());
+
+		TaskService.AssignedPage first = taskService.getAssignedTasks("tx-assignee", null, null, 2);
+		assertEquals(List.of(sooner.getId(), later.getId()), first.items().stream().map(Task::getId).toList());
+
+		TaskService.AssignedPage second = taskService.getAssignedTasks("tx-assignee", null, first.nextCursor(), 2);
+		assertEquals(List.of(undated.getId()), second.items().stream().map(Task::getId).toList());
+		assertNull(second.nextCursor());
+
+		assertEquals(0, taskService.getAssignedTasks("tx-assignee", "done", null, 2).items().size());
+	}
+
+	@Test
+	void searchCombinesFilters() {
+		LocalDateTime now = LocalDateTime.now();
+		Task overdue = createAssigned("tx-searcher", null, "Fix login_page", "tx-searcher", now.minusDays(1));
+		createAssigned("tx-searcher", null, "Fix logout", "tx-searcher", now.plusDays(1));
+		createAssigned("tx-searcher", null, "Fixed%thing", "tx-searcher", now.minusDays(2));
+
+		TaskFilter filter = new TaskFilter();
+		filter.setQ("Fix login_");
+		filter.setOverdue(true);
+		filter.setStatus(List.of("todo"));
+		assertEquals(List.of(overdue.getId()),
+				taskService.searchTasks("tx-searcher", filter, 10).stream().map(Task::getId).toList());
+
+		// LIKE 的萬用字元視為一般字元
+		TaskFilter literal = new TaskFilter();
+		literal.setQ("Fix%");
+		assertEquals(0, taskService.searchTasks("tx-searcher", literal, 10).size());
+	}
+
+	@Test
+	void cachedBoardFollowsTaskWrites() {
+		createUser("tx-board");
+		Long teamId = teamService.createTeam("tx-board", "board team", null).getId();
+		Task first = createTeamTask(teamId, "first");
+		Task second = createTeamTask(teamId, "second");
+
+		teamService.getTeamTasks("tx-board", teamId, false);
+		assertTrue(teamBoardReader.cachedBoards() > 0);
+
+		// 新增、更新、移動、刪除都直接寫入快取中的看板
+		Task third = createTeamTask(teamId, "third");
+		second.setTitle("second, renamed");
+		taskService.updateTask("tx-board", second.getId(), second);
+		taskService.moveTask("tx-board", third.getId(), "todo", null, first.getId());
+		taskService.moveTask("tx-board", first.getId(), "done", null, null);
+		Task removed = createTeamTask(teamId, "removed");
+		taskService.deleteTask("tx-board", removed.getId());
+
+		String cached = new String(teamService.getTeamTasks("tx-board", teamId, false));
+		teamBoardReader.invalidate(teamId);
+		String loaded = new String(teamService.getTeamTasks("tx-board", teamId, false));
+		assertEquals(loaded, cached);
+		assertTrue(cached.indexOf("\"third\"") < cached.indexOf("second, renamed"));
+		assertFalse(cached.contains("\"removed\""));
+
+		assertThrows(OperationDeniedException.class, () -> teamService.getTeamTasks("tx-mover", teamId, false));
+	}
+
+	@Test
+	void activityIsVisibleOnlyToCreatorAndTeamMembers() {
+		PageRequest page = PageRequest.of(0, 10);
+		Task personal = createTask("tx-historian", "private history");
+		createUser("tx-outsider");
+		taskService.getActivity("tx-historian", personal.getId(), null, page);
+		assertThrows(OperationDeniedException.class,
+				() -> taskService.getActivity("tx-outsider", personal.getId(), null, page));
+
+		createUser("tx-board");
+		Long teamId = teamService.createTeam("tx-board", "history team", null).getId();
+		Task teamTask = createTeamTask(teamId, "team history");
+		teamService.inviteMember("tx-board", teamId, "tx-historian");
+		taskService.getActivity("tx-historian", teamTask.getId(), null, page);
+		assertThrows(OperationDeniedException.class,
+				() -> taskService.getActivity("tx-outsider", teamTask.getId(), null, page));
+
+		// 刪除後依操作紀錄判斷，仍可讀到刪除紀錄
+		taskService.deleteTask("tx-historian", personal.getId());
+		taskService.deleteTask("tx-board", teamTask.getId());
+		taskActivityLog.flush();
+		assertEquals(TaskActivity.Action.DELETE,
+				taskService.getActivity("tx-historian", personal.getId(), null, page).get(0).getAction());
+		assertEquals(TaskActivity.Action.DELETE,
+				taskService.getActivity("tx-historian", teamTask.getId(), null, page).get(0).getAction());
+		assertThrows(OperationDeniedException.class,
+				() -> taskService.getActivity("tx-outsider", personal.getId(), null, page));
+		assertThrows(OperationDeniedException.class,
+				() -> taskService.getActivity("tx-outsider", teamTask.getId(), null, page));
+	}
+
+	private Task createTeamTask(Long teamId, String title) {
+		Task task = new Task();
+		task.setTitle(title);
+		return teamService.createTeamTask("tx-board", teamId, task);
+	}
+
+	private Task createAssigned(String owner, Long teamId, String title, String assignee, LocalDateTime dueDate) {
+		createUser(owner);
+		Task task = new Task();
+		task.setTitle(title);
+		task.setAssignee(assignee);
+		task.setDueDate(dueDate);
+		return taskService.createTask(owner, teamId, task);
+	}
+
+	private void createUser(String username) {
+		if (userRepository.findByUsername(username).isEmpty()) {
+			User user = new User();
+			user.setUsername(username);
+			userRepository.save(user);
+		}
+	}
+
+	private Task createTask(String username, String title) {
+		createUser(username);
+		Task task = new Task();
+		task.setTitle(title);
+		return taskService.createTask(username, null, task);
+	}
+}
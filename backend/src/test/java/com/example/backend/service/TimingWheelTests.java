@@ -0,0 +1,53 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TimingWheelTests {
+
+	@Test
+	void firesEntriesAcrossLevelsInOrder() {
+		TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+		wheel.schedule("soon", 25);
+		wheel.schedule("level1", 400);
+		wheel.schedule("level2", 5_000);
+
+		List<String> fired = new ArrayList<>();
+		wheel.advanceClock(30, e -> fired.add(e.getValue()));
+		assertEquals(List.of("soon"), fired);
+
+		wheel.advanceClock(399, e -> fired.add(e.getValue()));
+		assertEquals(List.of("soon"), fired);
+
+		wheel.advanceClock(410, e -> fired.add(e.getValue()));
+		wheel.advanceClock(5_010, e -> fired.add(e.getValue()));
+		assertEquals(List.of("soon", "level1", "level2"), fired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cancelledEntriesNeverFire() {
+		TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+		TimingWheel.Entry<String> entry = wheel.schedule("cancelled", 1_000);
+		wheel.schedule("kept", 1_000);
+		wheel.cancel(entry);
+
+		List<String> fired = new ArrayList<>();
+		wheel.advanceClock(2_000, e -> fired.add(e.getValue()));
+		assertEquals(List.of("kept"), fired);
+	}
+
+	@Test
+	void rejectsAlreadyExpiredEntries() {
+		TimingWheel<String> wheel = new TimingWheel<>(10, 8, 100);
+		assertNull(wheel.schedule("past", 50));
+		assertTrue(wheel.schedule("now", 100).isScheduled());
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.example.backend.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Arrays;
+
+@SpringBootTest(properties = {
+		"sharding.enabled=true",
+		"sharding.urls=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+		"sharding.create-schema=true",
+		"spring.jpa.open-in-view=false"
+})
+@TestPropertySource(locations = "classpath:application-test.properties")
+@AutoConfigureMockMvc
+class ShardingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ShardRouter shardRouter;
+
+	@Autowired
+	private ShardDirectory shardDirectory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	@WithMockUser(username = "shard-alice")
+	void placesTeamsAcrossShardsAndGathersTasks() throws Exception {
+		User alice = new User();
+		alice.setUsername("shard-alice");
+		alice.setEmail("shard-alice@example.com");
+		shardRouter.replicateUser(userRepository.save(alice));
+
+		long[] teamIds = new long[3];
+		for (int i = 0; i < 3; i++) {
+			teamIds[i] = idOf(mockMvc.perform(post("/api/teams")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content("{\"name\":\"team-" + i + "\"}"))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			mockMvc.perform(post("/api/teams/" + teamIds[i] + "/tasks")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content("{\"title\":\"task-" + i + "\"}"))
+					.andExpect(status().isOk());
+		}
+		mockMvc.perform(post("/api/tasks")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"title\":\"personal\"}"))
+				.andExpect(status().isOk());
+
+		// 每個團隊與其任務都只存在於自己的分片
+		for (long teamId : teamIds) {
+			int shard = shardDirectory.shardForTeam(teamId);
+			long count = shardRouter.onShard(shard,
+					() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks WHERE team_id = ?", Long.class, teamId));
+			assertEquals(1L, count);
+		}
+		assertEquals(3, Arrays.stream(teamIds).mapToInt(id -> shardDirectory.shardForTeam(id)).distinct().count());
+
+		mockMvc.perform(get("/api/tasks/all"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(4));
+		mockMvc.perform(get("/api/tasks/personal"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].title").value("personal"));
+		mockMvc.perform(get("/api/teams"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(3))
+				.andExpect(jsonPath("$[0].role").value("OWNER"))
+				.andExpect(jsonPath("$[0].memberCount").value(1))
+				.andExpect(jsonPath("$[0].createdBy.username").value("shard-alice"));
+		mockMvc.perform(get("/api/teams/" + teamIds[2] + "/tasks"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].title").value("task-2"));
+		mockMvc.perform(get("/api/teams/" + teamIds[2] + "/tasks").param("fields", "title,team"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].title").value("task-2"))
+				.andExpect(jsonPath("$[0].team.id").value(teamIds[2]))
+				.andExpect(jsonPath("$[0].description").doesNotExist());
+		mockMvc.perform(get("/api/tasks/all").param("fields", "title"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(4))
+				.andExpect(jsonPath("$[0].user").doesNotExist());
+		mockMvc.perform(get("/api/tasks/all").param("fields", "password"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private long idOf(String json) throws Exception {
+		JsonNode node = objectMapper.readTree(json);
+		return node.get("id").asLong();
+	}
+
+}
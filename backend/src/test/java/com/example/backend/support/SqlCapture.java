@@ -0,0 +1,160 @@
+package com.example.backend.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 測試用：記錄經由 DataSource 送出的每一條 SQL。
+ * 以 @Import(SqlCapture.Config.class) 掛上後注入 SqlCapture 使用。
+ * record 只計算目前執行緒送出的 SQL 與讀取的列數，背景工作的查詢不會混入。
+ */
+public class SqlCapture {
+
+    @TestConfiguration
+    public static class Config {
+        @Bean
+        public SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        public static BeanPostProcessor sqlCapturingDataSource(org.springframework.beans.factory.ObjectProvider<SqlCapture> capture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return capture.getObject().wrap(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    // 單一執行緒在 record 期間送出的 SQL 與讀取的列數
+    public static class Recording {
+        private final List<String> statements = new ArrayList<>();
+        private long rows;
+
+        public List<String> statements() {
+            return statements;
+        }
+
+        public long rows() {
+            return rows;
+        }
+    }
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Recording> current = new ThreadLocal<>();
+
+    public void clear() {
+        statements.clear();
+    }
+
+    public List<String> statements() {
+        return new ArrayList<>(statements);
+    }
+
+    public Recording record(Action action) throws Exception {
+        Recording recording = new Recording();
+        Recording previous = current.get();
+        current.set(recording);
+        try {
+            action.run();
+        } finally {
+            current.set(previous);
+        }
+        return recording;
+    }
+
+    DataSource wrap(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(dataSource, method, args);
+                    if (result instanceof Connection connection) {
+                        return wrap(connection);
+                    }
+                    return result;
+                });
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ((method.getName().equals("prepareStatement") || method.getName().equals("prepareCall"))
+                            && args != null && args[0] instanceof String sql) {
+                        statements.add(sql);
+                        Recording recording = current.get();
+                        if (recording != null) {
+                            recording.statements.add(sql);
+                        }
+                    }
+                    Object result = invoke(connection, method, args);
+                    Recording recording = current.get();
+                    if (recording == null) {
+                        return result;
+                    }
+                    if (result instanceof CallableStatement statement) {
+                        return wrap(statement, CallableStatement.class, recording);
+                    }
+                    if (result instanceof PreparedStatement statement) {
+                        return wrap(statement, PreparedStatement.class, recording);
+                    }
+                    if (result instanceof Statement statement) {
+                        return wrap(statement, Statement.class, recording);
+                    }
+                    return result;
+                });
+    }
+
+    private Object wrap(Statement statement, Class<?> type, Recording recording) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    // 未經 prepare 直接執行的 SQL（Statement.execute*）
+                    if (type == Statement.class && method.getName().startsWith("execute")
+                            && args != null && args[0] instanceof String sql) {
+                        statements.add(sql);
+                        recording.statements.add(sql);
+                    }
+                    Object result = invoke(statement, method, args);
+                    return result instanceof ResultSet resultSet ? wrap(resultSet, recording) : result;
+                });
+    }
+
+    private ResultSet wrap(ResultSet resultSet, Recording recording) {
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(resultSet, method, args);
+                    if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                        recording.rows++;
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
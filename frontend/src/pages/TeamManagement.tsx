@@ -6,7 +6,8 @@ import {
     getTeamMembers,
     inviteTeamMember,
     removeMemberFromTeam,
-    deleteTeam
+    deleteTeam,
+    waitForJob
 } from "../services/api";
 import type { Team, TeamMember } from "../types/team";
 
@@ -25,6 +26,9 @@ const TeamManagement: React.FC = () => {
     const [showInviteForm, setShowInviteForm] = useState(false);
     const [inviteUsername, setInviteUsername] = useState("");
 
+    // 背景刪除中的團隊
+    const [deletingTeamIds, setDeletingTeamIds] = useState<number[]>([]);
+
     // 通知狀態
     const [notification, setNotification] = useState<{ message: string; type: 'success' | 'error' } | null>(null);
 
@@ -35,6 +39,8 @@ const TeamManagement: React.FC = () => {
     useEffect(() => {
         if (selectedTeam) {
             fetchTeamMembers(selectedTeam.id);
+        } else {
+            setTeamMembers([]);
         }
     }, [selectedTeam]);
 
@@ -63,17 +69,23 @@ const TeamManagement: React.FC = () => {
         const confirmMessage = `確定要刪除團隊「${team.name}」嗎？\n\n注意：\n- 團隊中的未完成任務必須先完成或重新分配\n- 已完成的任務將一併刪除\n- 此操作無法復原`;
 
         if (confirm(confirmMessage)) {
+            setDeletingTeamIds(prev => [...prev, team.id]);
             try {
-                await deleteTeam(team.id);
+                // 後端以背景工作刪除，工作成功前團隊仍留在列表中
+                const { jobId } = await deleteTeam(team.id);
+                showNotification(`已開始刪除團隊「${team.name}」`, 'success');
+
+                const job = await waitForJob(Number(jobId));
+                if (job.status === 'FAILED') {
+                    showNotification(job.error || "刪除團隊失敗", 'error');
+                    return;
+                }
 
                 // 更新團隊列表
                 setTeams(prev => prev.filter(t => t.id !== team.id));
 
                 // 如果刪除的是當前選中的團隊，清除選擇
-                if (selectedTeam?.id === team.id) {
-                    setSelectedTeam(null);
-                    setTeamMembers([]);
-                }
+                setSelectedTeam(prev => (prev?.id === team.id ? null : prev));
 
                 showNotification(`團隊「${team.name}」已成功刪除`, 'success');
 
@@ -81,6 +93,8 @@ const TeamManagement: React.FC = () => {
                 console.error("Failed to delete team:", error);
                 const errorMessage = error.data?.error || error.message || "刪除團隊失敗";
                 showNotification(errorMessage, 'error');
+            } finally {
+                setDeletingTeamIds(prev => prev.filter(id => id !== team.id));
             }
         }
     };
@@ -254,9 +268,10 @@ const TeamManagement: React.FC = () => {
                                                         e.stopPropagation();
                                                         handleDeleteTeam(team);
                                                     }}
-                                                    className="text-red-500 hover:text-red-700 text-sm"
+                                                    disabled={deletingTeamIds.includes(team.id)}
+                                                    className="text-red-500 hover:text-red-700 text-sm disabled:opacity-50"
                                                 >
-                                                    刪除團隊
+                                                    {deletingTeamIds.includes(team.id) ? "刪除中..." : "刪除團隊"}
                                                 </button>
                                             </div>
                                         )}
@@ -7,6 +7,7 @@ import ProfilePage from "../pages/ProfilePage";
 import type { User } from "../types/type";
 import TeamManagement from "../pages/TeamManagement";
 import AllTasks from "../pages/AllTasks";
+import { logoutUser } from "../services/api";
 
 export default function AppRoutes() {
     const [user, setUser] = useState<User | null>(null);
@@ -24,6 +25,8 @@ export default function AppRoutes() {
     };
 
     const onLogout = () => {
+        // 在伺服器端撤銷 token，失敗時仍然清除本機的登入狀態
+        logoutUser().catch(() => {});
         localStorage.removeItem("user");
         localStorage.removeItem("token");
         setUser(null);
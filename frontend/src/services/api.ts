@@ -47,23 +47,70 @@ export const loginUser = async (username: string, password: string) => {
     });
 };
 
+// 撤銷目前的 token；logoutAllSessions 會讓所有裝置上的 token 失效
+export const logoutUser = async () => {
+    return request(`${BASE_URL}/auth/logout`, { method: "POST" });
+};
+
+export const logoutAllSessions = async () => {
+    return request(`${BASE_URL}/auth/logout-all`, { method: "POST" });
+};
+
 export const getProfile = async (): Promise<User> => {
     return request(`${BASE_URL}/auth/me`);
 };
 
 // 任務管理 API 
-export const getTasks = async (userId: number, mode?: 'personal' | 'all'): Promise<Task[]> => {
+export const getTasks = async (userId: number, mode?: 'personal' | 'all', includeArchived = false): Promise<Task[]> => {
     const params = new URLSearchParams({ userId: userId.toString() });
     if (mode) params.append('mode', mode);
+    if (includeArchived) params.append('includeArchived', 'true');
     return request(`${BASE_URL}/tasks?${params}`);
 };
 
-export const getPersonalTasks = async (): Promise<Task[]> => {
-    return request(`${BASE_URL}/tasks/personal`);
+// 看板卡片只需要的欄位，搭配 fields 參數使用
+export const BOARD_CARD_FIELDS: (keyof Task)[] = ['id', 'title', 'status', 'assignee', 'dueDate'];
+
+// includeArchived：一併取得已歸檔（完成超過一段時間）的任務；fields：只回傳指定的欄位
+const listParams = (includeArchived: boolean, fields?: (keyof Task)[]) => {
+    const params = new URLSearchParams();
+    if (includeArchived) params.append('includeArchived', 'true');
+    if (fields) params.append('fields', fields.join(','));
+    const query = params.toString();
+    return query ? `?${query}` : '';
+};
+
+export const getPersonalTasks = async (includeArchived = false, fields?: (keyof Task)[]): Promise<Task[]> => {
+    return request(`${BASE_URL}/tasks/personal${listParams(includeArchived, fields)}`);
 };
 
-export const getAllAccessibleTasks = async (): Promise<Task[]> => {
-    return request(`${BASE_URL}/tasks/all`);
+export const getAllAccessibleTasks = async (includeArchived = false, fields?: (keyof Task)[]): Promise<Task[]> => {
+    return request(`${BASE_URL}/tasks/all${listParams(includeArchived, fields)}`);
+};
+
+export interface TaskFilter {
+    status?: Task['status'][];
+    assignee?: string;
+    teamId?: number[];
+    dueFrom?: string; // ISO 日期時間
+    dueTo?: string;
+    overdue?: boolean;
+    q?: string; // 標題前綴
+    limit?: number;
+}
+
+// 在伺服器端篩選可見的任務
+export const searchTasks = async (filter: TaskFilter): Promise<Task[]> => {
+    const params = new URLSearchParams();
+    filter.status?.forEach(status => params.append('status', status));
+    filter.teamId?.forEach(teamId => params.append('teamId', teamId.toString()));
+    if (filter.assignee) params.append('assignee', filter.assignee);
+    if (filter.dueFrom) params.append('dueFrom', filter.dueFrom);
+    if (filter.dueTo) params.append('dueTo', filter.dueTo);
+    if (filter.overdue) params.append('overdue', 'true');
+    if (filter.q) params.append('q', filter.q);
+    if (filter.limit) params.append('limit', filter.limit.toString());
+    return request(`${BASE_URL}/tasks/search?${params}`);
 };
 
 export const addTask = async (userId: number, task: Omit<Task, 'id'>, teamId?: number) => {
@@ -105,8 +152,8 @@ export const getTeam = async (teamId: number): Promise<Team> => {
     return request(`${BASE_URL}/teams/${teamId}`);
 };
 
-export const getTeamTasks = async (teamId: number): Promise<Task[]> => {
-    return request(`${BASE_URL}/teams/${teamId}/tasks`);
+export const getTeamTasks = async (teamId: number, includeArchived = false, fields?: (keyof Task)[]): Promise<Task[]> => {
+    return request(`${BASE_URL}/teams/${teamId}/tasks${listParams(includeArchived, fields)}`);
 };
 
 export const createTeamTask = async (teamId: number, task: Omit<Task, 'id'>): Promise<Task> => {
@@ -137,4 +184,33 @@ export const deleteTeam = async (teamId: number): Promise<any> => {
     return request(`${BASE_URL}/teams/${teamId}`, {
         method: "DELETE",
     });
-};
\ No newline at end of file
+};
+
+// 背景工作 API
+export interface Job {
+    id: number;
+    type: string;
+    status: 'QUEUED' | 'RUNNING' | 'SUCCEEDED' | 'FAILED';
+    progress: number;
+    attempts: number;
+    maxAttempts: number;
+    error?: string;
+    result?: string;
+    createdAt: string;
+    updatedAt: string;
+}
+
+export const getJob = async (jobId: number): Promise<Job> => {
+    return request(`${BASE_URL}/jobs/${jobId}`);
+};
+
+// 輪詢背景工作直到成功或失敗
+export const waitForJob = async (jobId: number, intervalMs = 1000): Promise<Job> => {
+    for (;;) {
+        const job = await getJob(jobId);
+        if (job.status === 'SUCCEEDED' || job.status === 'FAILED') {
+            return job;
+        }
+        await new Promise(resolve => setTimeout(resolve, intervalMs));
+    }
+};
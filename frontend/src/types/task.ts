@@ -17,4 +17,6 @@ export interface Task {
         id: number;
         username: string;
     };
+    completedAt?: string | null; // 進入 done 的時間
+    archived?: boolean; // 來自已歸檔的任務（includeArchived）
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ export interface Team {
         email: string;
     };
     createdAt: string;
+    role?: 'OWNER' | 'ADMIN' | 'MEMBER'; // 團隊列表才會帶：目前用戶的角色
+    memberCount?: number; // 團隊列表才會帶：成員數
 }
 
 export interface TeamMember {